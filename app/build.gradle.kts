@@ -1,5 +1,6 @@
 plugins {
     alias(libs.plugins.android.application)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -37,6 +38,12 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
+    implementation(libs.core.splashscreen)
+    // Installs the baseline profile on sideloaded builds; the Play Store does it otherwise
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":baselineprofile"))
+    implementation(project(":engine"))
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
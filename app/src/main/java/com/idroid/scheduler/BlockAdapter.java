@@ -0,0 +1,80 @@
+package com.idroid.scheduler;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.idroid.scheduler.engine.ScheduleResult;
+
+import java.util.Arrays;
+
+/**
+ * One row per Gantt block, read straight from the results' block arrays. A row's text is built
+ * when it is bound, so only the rows on screen are ever formatted. Lanes follow one another,
+ * each block labelled with its CPU when there is more than one.
+ */
+public class BlockAdapter extends RecyclerView.Adapter<BlockAdapter.ViewHolder> {
+    private final ScheduleResult[] lanes;
+    private final int[] laneStart; // position of each lane's first block
+    private final int itemCount;
+
+    public BlockAdapter(ScheduleResult[] lanes) {
+        this.lanes = lanes;
+        laneStart = new int[lanes.length];
+        int count = 0;
+        for (int lane = 0; lane < lanes.length; lane++) {
+            laneStart[lane] = count;
+            count += lanes[lane].getBlockCount();
+        }
+        itemCount = count;
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView txtBlock;
+        final StringBuilder text = new StringBuilder();
+
+        public ViewHolder(View view) {
+            super(view);
+            txtBlock = view.findViewById(R.id.txtBlock);
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_block, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        int lane = laneOf(position);
+        ScheduleResult result = lanes[lane];
+        int i = position - laneStart[lane];
+        StringBuilder text = holder.text;
+        text.setLength(0);
+        if (lanes.length > 1) text.append("CPU ").append(lane + 1).append(":  ");
+        text.append(result.getBlockName(i)).append(" [")
+                .append(result.getBlockStart(i)).append('-')
+                .append(result.getBlockEnd(i)).append(']');
+        holder.txtBlock.setText(text);
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    // Last lane starting at or before position; empty lanes share a start with the next one
+    private int laneOf(int position) {
+        int lane = Arrays.binarySearch(laneStart, position);
+        if (lane < 0) return -lane - 2;
+        while (lane + 1 < laneStart.length && laneStart[lane + 1] == position) lane++;
+        return lane;
+    }
+}
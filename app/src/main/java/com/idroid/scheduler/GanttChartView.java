@@ -1,151 +1,499 @@
 package com.idroid.scheduler;
 
+import android.animation.TimeAnimator;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
-import android.os.Handler;
-import android.os.Parcelable;
-import android.os.Parcel;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.widget.OverScroller;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import com.idroid.scheduler.engine.RunMetrics;
+import com.idroid.scheduler.engine.ScheduleResult;
+import com.idroid.scheduler.engine.TimelinePyramid;
 
+/**
+ * Draws the blocks of a {@link ScheduleResult} on a time axis that can be zoomed with a pinch,
+ * panned and flung horizontally, and reset with a double tap. When a pixel covers more time
+ * than the finest {@link TimelinePyramid} bucket, each pixel column is painted from one or two
+ * pyramid buckets in the colour of their dominant process, shaded by how busy the CPU was.
+ * Closer in, only the blocks that intersect the visible area are visited, found by binary
+ * search over the block ends. Either way the cost of a frame depends on the width of the view
+ * rather than on the number of blocks.
+ *
+ * <p>Playback reveals the schedule by simulated time on display frames, covering the whole
+ * makespan in {@link #PLAYBACK_SECONDS} at 1x, and each frame only invalidates the pixels that
+ * were revealed since the previous one. What has been revealed so far is kept in an offscreen
+ * bitmap, so a frame only paints those new pixels into it and then blits it, however far
+ * playback has gone. The bitmap is cleared on resize, zoom, pan, seeking backwards and
+ * {@link #setLanes}.
+ *
+ * <p>A multi-CPU schedule is drawn as one lane per CPU, stacked top to bottom on the shared
+ * time axis. When there are more lanes than pixel rows, only one lane per row is drawn. Each
+ * drawn lane gets its own pyramid, built the first time it is drawn, and the bucket budget is
+ * shared between the lanes that can be drawn at once, so thousands of CPUs cost no more
+ * buckets than one.
+ *
+ * <p>With {@link #setMetrics} each frame records its draw time and how many blocks it painted
+ * or merged; all other blocks count as culled.
+ */
 public class GanttChartView extends View {
-    private final ArrayList<GanttBlock> blocks = new ArrayList<>();
-    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    private final HashMap<String, Integer> colorMap = new HashMap<>();
+    private static final int AGGREGATE_COLOR = 0xFF9E9E9E;
+    private static final float LABEL_PADDING = 10;
+    private static final double MIN_TIME_PER_PIXEL = 1 / 64.0;
+    private static final int SHADES = 4;
+    private static final float PLAYBACK_SECONDS = 10;
+    private static final int MIN_LANE_BUCKETS = 64;
+
+    private final Paint paint = new Paint();
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect clipBounds = new Rect();
+    private final Rect dirty = new Rect();
     private final int[] colors = {0xFFE57373, 0xFF64B5F6, 0xFF81C784, 0xFFFFB74D, 0xFFBA68C8};
 
-    private int maxTime = 1;
-    private float animationProgress = 0;
-    private boolean isPlaying = false;
-    private int currentStep = 0;
+    private ScheduleResult[] lanes;
+    private TimelinePyramid[] pyramids; // built on first draw of each lane
+    private long maxTime = 1;
+    private double revealedTime = 0;
+    private float playbackSpeed = 1;
+    private PlaybackListener playbackListener;
+    private RunMetrics metrics;
+    private long blockTotal;
+    private long blocksDrawn; // in the current frame
+
+    // Holds everything revealed up to cachedTime at the current zoom and position
+    private Bitmap cache;
+    private Canvas cacheCanvas;
+    private double cachedTime = 0;
+
+    // Time at the left edge and time per pixel; 0 means fit the whole schedule to the width
+    private double viewStart = 0;
+    private double timePerPixel = 0;
+
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+    private final OverScroller scroller;
+    private int flingX;
 
-    private final Handler handler = new Handler();
-    private Runnable animationRunnable;
+    private final TimeAnimator animator = new TimeAnimator();
+
+    public interface PlaybackListener {
+        void onPlaybackPositionChanged(long time, long makespan);
+    }
 
     public GanttChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        labelPaint.setColor(0xFFFFFFFF);
+        animator.setTimeListener((animation, totalTime, deltaTime) -> advance(deltaTime));
+        scroller = new OverScroller(context);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                getParent().requestDisallowInterceptTouchEvent(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoomAround(detector.getFocusX(), detector.getScaleFactor());
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                // Horizontal drags belong to the chart, vertical ones to the enclosing ScrollView
+                if (Math.abs(distanceX) > Math.abs(distanceY)) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                panBy(distanceX);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                flingX = 0;
+                scroller.fling(0, 0, (int) -velocityX, 0,
+                        Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, 0, 0);
+                postInvalidateOnAnimation();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                timePerPixel = 0;
+                viewStart = 0;
+                invalidateCache();
+                invalidate();
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                return performClick();
+            }
+        });
+    }
+
+    public void setBlocks(ScheduleResult result) {
+        setLanes(new ScheduleResult[]{result});
     }
 
-    public void setBlocks(ArrayList<GanttBlock> newBlocks) {
-        blocks.clear();
-        blocks.addAll(newBlocks);
-        assignColors();
-        maxTime = blocks.isEmpty() ? 1 : blocks.get(blocks.size() - 1).end;
+    // One lane per CPU, all over the same process table
+    public void setLanes(ScheduleResult[] lanes) {
+        this.lanes = lanes;
+        pyramids = new TimelinePyramid[lanes.length];
+        long makespan = 1;
+        for (ScheduleResult lane : lanes) makespan = Math.max(makespan, lane.getMakespan());
+        maxTime = makespan;
+        blockTotal = 0;
+        for (ScheduleResult lane : lanes) blockTotal += lane.getBlockCount();
+        updateLabelSize();
+        viewStart = 0;
+        timePerPixel = 0;
+        invalidateCache();
         resetAnimation();
         invalidate();
     }
 
+    // Null stops recording frames
+    public void setMetrics(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setPlaybackListener(PlaybackListener listener) {
+        playbackListener = listener;
+    }
+
+    // Multiplier over the default pace of the whole schedule in PLAYBACK_SECONDS
+    public void setPlaybackSpeed(float speed) {
+        playbackSpeed = speed;
+    }
+
     public void resetAnimation() {
-        animationProgress = 0;
-        currentStep = 0;
-        isPlaying = false;
-        invalidate();
+        animator.cancel();
+        setRevealedTime(0);
     }
 
     public void playAnimation() {
-        if (isPlaying) return;
-        isPlaying = true;
-
-        animationRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (currentStep < blocks.size()) {
-                    currentStep++;
-                    invalidate();
-                    handler.postDelayed(this, 1000);
-                } else {
-                    isPlaying = false;
-                }
-            }
-        };
-        handler.post(animationRunnable);
+        if (lanes == null || animator.isStarted()) return;
+        if (revealedTime >= maxTime) setRevealedTime(0);
+        animator.start();
     }
 
     public void pauseAnimation() {
-        isPlaying = false;
-        handler.removeCallbacks(animationRunnable);
+        animator.cancel();
     }
 
+    // Reveals up to the end of the next block on any lane
     public void stepForward() {
-        if (currentStep < blocks.size()) {
-            currentStep++;
+        if (lanes == null) return;
+        long time = (long) Math.floor(revealedTime);
+        long nextEnd = Long.MAX_VALUE;
+        for (ScheduleResult lane : lanes) {
+            int next = lane.firstBlockEndingAfter(time);
+            if (next < lane.getBlockCount()) nextEnd = Math.min(nextEnd, lane.getBlockEnd(next));
+        }
+        if (nextEnd != Long.MAX_VALUE) setRevealedTime(nextEnd);
+    }
+
+    public void seekTo(long time) {
+        setRevealedTime(Math.max(0, Math.min(time, maxTime)));
+    }
+
+    private void advance(long deltaMillis) {
+        double timePerMilli = maxTime * playbackSpeed / (PLAYBACK_SECONDS * 1000);
+        setRevealedTime(Math.min(maxTime, revealedTime + deltaMillis * timePerMilli));
+        if (revealedTime >= maxTime) animator.cancel();
+    }
+
+    private void setRevealedTime(double time) {
+        double before = revealedTime;
+        revealedTime = time;
+        if (time >= before) {
+            invalidateTimeRange(before, time);
+        } else {
             invalidate();
         }
+        if (playbackListener != null) playbackListener.onPlaybackPositionChanged((long) time, maxTime);
     }
 
-    private void assignColors() {
-        colorMap.clear();
-        int index = 0;
-        for (GanttBlock block : blocks) {
-            if (!colorMap.containsKey(block.name)) {
-                colorMap.put(block.name, colors[index % colors.length]);
-                index++;
-            }
+    private void invalidateTimeRange(double from, double to) {
+        if (lanes != null && revealRange(from, to, dirty)) invalidate(dirty);
+    }
+
+    // Pixels that change when the reveal edge moves between two times. Also covers the blocks
+    // under the old edge, whose labels appear once they are fully revealed.
+    private boolean revealRange(double from, double to, Rect out) {
+        long edge = (long) Math.floor(from);
+        for (ScheduleResult lane : lanes) {
+            int block = lane.firstBlockEndingAfter(edge);
+            if (block < lane.getBlockCount()) from = Math.min(from, lane.getBlockStart(block));
+        }
+        double tpp = timePerPixel();
+        double left = Math.max(0, Math.floor((from - viewStart) / tpp) - 1);
+        double right = Math.min(getWidth(), Math.ceil((to - viewStart) / tpp) + 1);
+        out.set((int) left, 0, (int) right, getHeight());
+        return left < right;
+    }
+
+    private void invalidateCache() {
+        if (cache != null) cache.eraseColor(Color.TRANSPARENT);
+        cachedTime = 0;
+    }
+
+    // Blocks of a lane that have started by the revealed time; the last may be partly revealed
+    private int revealedBlockCount(ScheduleResult lane) {
+        int next = lane.firstBlockEndingAfter((long) Math.floor(revealedTime));
+        return next < lane.getBlockCount() && lane.getBlockStart(next) < revealedTime ? next + 1 : next;
+    }
+
+    private TimelinePyramid pyramid(int lane) {
+        if (pyramids[lane] == null) {
+            int drawnLanes = Math.max(1, Math.min(lanes.length, getHeight()));
+            int buckets = Math.max(MIN_LANE_BUCKETS, TimelinePyramid.MAX_BUCKETS / drawnLanes);
+            pyramids[lane] = new TimelinePyramid(lanes[lane], buckets);
         }
+        return pyramids[lane];
+    }
+
+    // Top pixel row of a lane; lane i covers [laneTop(i), laneTop(i + 1))
+    private int laneTop(int lane) {
+        return (int) ((long) lane * getHeight() / lanes.length);
+    }
+
+    private void updateLabelSize() {
+        labelPaint.setTextSize(getHeight() / 3f / (lanes == null ? 1 : lanes.length));
+    }
+
+    private double fitTimePerPixel() {
+        return maxTime / (double) Math.max(1, getWidth());
+    }
+
+    private double timePerPixel() {
+        return timePerPixel == 0 ? fitTimePerPixel() : timePerPixel;
+    }
+
+    // Keeps the time under focusX fixed while scaling
+    private void zoomAround(float focusX, float scaleFactor) {
+        double before = timePerPixel();
+        double focusTime = viewStart + focusX * before;
+        double after = Math.max(MIN_TIME_PER_PIXEL, before / scaleFactor);
+        timePerPixel = after >= fitTimePerPixel() ? 0 : after;
+        viewStart = focusTime - focusX * timePerPixel();
+        clampViewStart();
+        invalidateCache();
+        invalidate();
+    }
+
+    private void panBy(float pixels) {
+        if (timePerPixel == 0) return;
+        viewStart += pixels * timePerPixel;
+        clampViewStart();
+        invalidateCache();
+        invalidate();
+    }
+
+    private void clampViewStart() {
+        double maxStart = maxTime - getWidth() * timePerPixel();
+        viewStart = Math.max(0, Math.min(viewStart, maxStart));
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (lanes == null) return super.onTouchEvent(event);
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    public void computeScroll() {
+        if (!scroller.computeScrollOffset()) return;
+        int x = scroller.getCurrX();
+        panBy(x - flingX);
+        flingX = x;
+        postInvalidateOnAnimation();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        animator.cancel();
+        allocateCache(0, 0);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateLabelSize();
+        if (timePerPixel >= fitTimePerPixel()) timePerPixel = 0;
+        clampViewStart();
+        allocateCache(w, h);
+    }
+
+    private void allocateCache(int w, int h) {
+        cache = null;
+        cacheCanvas = null;
+        if (w > 0 && h > 0) {
+            cache = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            cacheCanvas = new Canvas(cache);
+        }
+        cachedTime = 0;
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        float widthPerUnit = getWidth() / (float) maxTime;
-        float height = getHeight();
-
-        for (int i = 0; i < currentStep && i < blocks.size(); i++) {
-            GanttBlock block = blocks.get(i);
-            float left = block.start * widthPerUnit;
-            float right = block.end * widthPerUnit;
-            paint.setColor(colorMap.get(block.name));
-            canvas.drawRect(left, 0, right, height, paint);
-
-            paint.setColor(0xFFFFFFFF);
-            paint.setTextSize(height / 3);
-            canvas.drawText(block.name, left + 10, height / 2, paint);
+        if (lanes == null) return;
+        long begin = System.nanoTime();
+        blocksDrawn = 0;
+        // Attached again after a detach dropped the bitmap
+        if (cache == null) allocateCache(getWidth(), getHeight());
+        if (cache == null) return;
+
+        if (revealedTime < cachedTime) invalidateCache();
+        if (revealedTime > cachedTime && revealRange(cachedTime, revealedTime, clipBounds)) {
+            cacheCanvas.save();
+            cacheCanvas.clipRect(clipBounds);
+            cacheCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            drawRevealed(cacheCanvas);
+            cacheCanvas.restore();
         }
+        cachedTime = revealedTime;
+        canvas.drawBitmap(cache, 0, 0, null);
+        if (metrics != null) metrics.recordFrame(System.nanoTime() - begin, blocksDrawn, blockTotal - blocksDrawn);
     }
 
-    public static class GanttBlock implements Parcelable {
-        public String name;
-        public int start, end;
+    // Paints the revealed part of every lane crossing clipBounds
+    private void drawRevealed(Canvas canvas) {
+        double tpp = timePerPixel();
+        for (int i = 0; i < lanes.length; i++) {
+            int top = laneTop(i), bottom = laneTop(i + 1);
+            // Shares its pixel row with the next lane, which is drawn instead
+            if (bottom == top || bottom <= clipBounds.top) continue;
+            if (top >= clipBounds.bottom) break;
 
-        public GanttBlock(String name, int start, int end) {
-            this.name = name;
-            this.start = start;
-            this.end = end;
+            ScheduleResult lane = lanes[i];
+            TimelinePyramid pyramid = pyramid(i);
+            int level = pyramid.levelFor(tpp);
+            if (level < 0) {
+                drawBlocks(canvas, lane, revealedBlockCount(lane), tpp, top, bottom);
+            } else {
+                drawBuckets(canvas, pyramid, level, tpp, revealedTime, top, bottom);
+            }
         }
+    }
 
-        // Parcelable Constructor
-        protected GanttBlock(Parcel in) {
-            name = in.readString();
-            start = in.readInt();
-            end = in.readInt();
-        }
+    private void drawBlocks(Canvas canvas, ScheduleResult result, int limit, double tpp, float top, float bottom) {
+        long visibleStart = (long) Math.floor(viewStart + clipBounds.left * tpp);
+        long visibleEnd = (long) Math.ceil(viewStart + clipBounds.right * tpp);
 
-        public static final Creator<GanttBlock> CREATOR = new Creator<GanttBlock>() {
-            @Override
-            public GanttBlock createFromParcel(Parcel in) {
-                return new GanttBlock(in);
-            }
+        int i = result.firstBlockEndingAfter(visibleStart);
+        while (i < limit && result.getBlockStart(i) < visibleEnd) {
+            // double keeps pixel positions exact for timestamps beyond float precision
+            float left = (float) ((result.getBlockStart(i) - viewStart) / tpp);
+            float right = (float) ((revealedEnd(result, i) - viewStart) / tpp);
 
-            @Override
-            public GanttBlock[] newArray(int size) {
-                return new GanttBlock[size];
+            if (right - left >= 1) {
+                paint.setColor(colors[result.getBlockProcess(i) % colors.length]);
+                canvas.drawRect(left, top, right, bottom, paint);
+                if (result.getBlockEnd(i) <= revealedTime) drawLabel(canvas, result, i, left, right, top, bottom);
+                blocksDrawn++;
+                i++;
+                continue;
             }
-        };
 
-        @Override
-        public void writeToParcel(Parcel dest, int flags) {
-            dest.writeString(name);
-            dest.writeInt(start);
-            dest.writeInt(end);
+            // Merge every block that ends inside this pixel column into one bar
+            float columnEnd = (float) Math.floor(left) + 1;
+            int next = Math.max(i + 1,
+                    Math.min(limit, result.firstBlockEndingAfter((long) (viewStart + columnEnd * tpp))));
+            right = Math.max((float) ((revealedEnd(result, next - 1) - viewStart) / tpp), left + 1);
+            paint.setColor(next - i == 1 ? colors[result.getBlockProcess(i) % colors.length] : AGGREGATE_COLOR);
+            canvas.drawRect(left, top, right, bottom, paint);
+            blocksDrawn += next - i;
+            i = next;
         }
+    }
 
-        @Override
-        public int describeContents() {
-            return 0;
+    private double revealedEnd(ScheduleResult result, int block) {
+        return Math.min(result.getBlockEnd(block), revealedTime);
+    }
+
+    // One pyramid lookup per pixel column, with equal adjacent columns drawn as one rectangle
+    private void drawBuckets(Canvas canvas, TimelinePyramid pyramid, int level, double tpp, double revealedEnd,
+                             float top, float bottom) {
+        long width = pyramid.bucketWidth(level);
+        int count = pyramid.bucketCount(level);
+        int runColor = 0;
+        int runStart = clipBounds.left;
+
+        int x = clipBounds.left;
+        for (; x < clipBounds.right; x++) {
+            double from = viewStart + x * tpp;
+            double to = Math.min(from + tpp, revealedEnd);
+            int first = (int) (from / width);
+            if (to <= from || first >= count) break;
+            int last = (int) Math.min(count - 1, (long) Math.ceil(to / width) - 1);
+
+            long busy = 0, longest = -1;
+            int process = -1;
+            for (int b = first; b <= last; b++) {
+                busy += pyramid.busyTime(level, b);
+                if (pyramid.dominantProcess(level, b) >= 0 && pyramid.dominantTime(level, b) > longest) {
+                    process = pyramid.dominantProcess(level, b);
+                    longest = pyramid.dominantTime(level, b);
+                }
+            }
+            int color = process < 0 ? 0 : shade(colors[process % colors.length],
+                    busy / (double) ((last - first + 1) * width));
+            if (color != runColor) {
+                fillRun(canvas, runColor, runStart, x, top, bottom);
+                runColor = color;
+                runStart = x;
+            }
         }
+        fillRun(canvas, runColor, runStart, x, top, bottom);
+    }
+
+    // Fades a colour towards transparent for partly idle columns, in a few steps so runs stay long
+    private static int shade(int color, double busyFraction) {
+        int step = (int) Math.ceil(Math.min(1, busyFraction) * SHADES);
+        int alpha = 0x40 + (0xFF - 0x40) * step / SHADES;
+        return (color & 0x00FFFFFF) | (alpha << 24);
+    }
+
+    private void fillRun(Canvas canvas, int color, int from, int to, float top, float bottom) {
+        if (color == 0 || to <= from) return;
+        paint.setColor(color);
+        canvas.drawRect(from, top, to, bottom, paint);
+    }
+
+    // Skips the label unless the whole name fits inside the block
+    private void drawLabel(Canvas canvas, ScheduleResult result, int block, float left, float right,
+                           float top, float bottom) {
+        float available = right - left - 2 * LABEL_PADDING;
+        if (available < labelPaint.getTextSize() || labelPaint.getTextSize() < 1) return;
+        String name = result.getBlockName(block);
+        if (labelPaint.measureText(name) > available) return;
+        canvas.drawText(name, left + LABEL_PADDING, (top + bottom) / 2, labelPaint);
     }
-}
\ No newline at end of file
+}
@@ -2,35 +2,87 @@ package com.idroid.scheduler;
 
 import android.annotation.SuppressLint;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
-import android.os.Parcelable;
+import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.RadioGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.core.splashscreen.SplashScreen;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.idroid.scheduler.engine.CfsScheduler;
+import com.idroid.scheduler.engine.FcfsScheduler;
+import com.idroid.scheduler.engine.MlfqScheduler;
+import com.idroid.scheduler.engine.PreemptivePriorityScheduler;
+import com.idroid.scheduler.engine.PriorityScheduler;
+import com.idroid.scheduler.engine.ResultCache;
+import com.idroid.scheduler.engine.ProcessModel;
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.RoundRobinScheduler;
+import com.idroid.scheduler.engine.RunMetrics;
+import com.idroid.scheduler.engine.RunningStats;
+import com.idroid.scheduler.engine.ScheduleResult;
+import com.idroid.scheduler.engine.ScheduleStats;
+import com.idroid.scheduler.engine.Scheduler;
+import com.idroid.scheduler.engine.SjfScheduler;
+import com.idroid.scheduler.engine.SmpScheduleResult;
+import com.idroid.scheduler.engine.SmpScheduler;
+import com.idroid.scheduler.engine.SrtfScheduler;
+import com.idroid.scheduler.engine.WorkloadGenerator;
+
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class MainActivity extends AppCompatActivity {
-    private RadioGroup algorithmGroup;
-    private EditText editName, editArrival, editBurst, editPriority;
+    private static final long DEFAULT_QUANTUM = 2;
+    private static final long DEFAULT_AGING_INTERVAL = 10;
+    private static final int MLFQ_LEVELS = 3;
+    private static final int MAX_CPUS = 4096;
+    private static final int MAX_LISTED_CPUS = 16; // more are summarised
+    // Larger imports stay in their table and are not listed one row per process
+    private static final int MAX_LISTED_PROCESSES = 100_000;
+    // About 30 bytes a row; larger streams belong to the engine's iterator, not a table
+    private static final int MAX_GENERATED_PROCESSES = 5_000_000;
+    private static final int DIURNAL_DAYS = 10;
+    private static final double DIURNAL_AMPLITUDE = 0.9;
+
+    private RadioGroup algorithmGroup, balancingGroup;
+    private EditText editName, editArrival, editBurst, editPriority, editQuantum, editAging, editCpus;
     private TextView txtResults;
+    private ProgressBar simulationProgress;
     private ProcessAdapter adapter;
-    private final ArrayList<ProcessModel> processList = new ArrayList<>();
-
-    @SuppressLint({"MissingInflatedId", "NotifyDataSetChanged"})
+    private final SimulationRunner simulationRunner = new SimulationRunner();
+    private final SimulationRunner exportRunner = new SimulationRunner(); // never cancelled by runs
+    private OcrImporter ocrImporter; // created on first use; holds an ML Kit recognizer
+    // Set instead of the adapter's rows for large imports. Runs, exports and cached results may
+    // still be reading it, so it is never modified; edits replace it with a longer copy.
+    private ProcessTable importedTable;
+    private int importedCountText = R.string.imported_processes;
+
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importWorkload);
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(TraceDocuments.BINARY_MIME_TYPE), this::exportWorkload);
+    private final ActivityResultLauncher<String[]> ocrLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importWithOcr);
+
+    @SuppressLint("MissingInflatedId")
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Stays up until the first frame; nothing else is loaded before the form is usable
+        SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
@@ -42,26 +94,44 @@ public class MainActivity extends AppCompatActivity {
         editArrival = findViewById(R.id.editArrival);
         editBurst = findViewById(R.id.editBurst);
         editPriority = findViewById(R.id.editPriority);
+        editQuantum = findViewById(R.id.editQuantum);
+        editAging = findViewById(R.id.editAging);
+        editCpus = findViewById(R.id.editCpus);
+        balancingGroup = findViewById(R.id.balancingGroup);
         Button addButton = findViewById(R.id.btnAddProcess);
         Button runButton = findViewById(R.id.btnRunSimulation);
         Button clearButton = findViewById(R.id.btnClearProcesses);
+        Button importButton = findViewById(R.id.btnImportWorkload);
+        Button exportButton = findViewById(R.id.btnExportWorkload);
+        Button ocrButton = findViewById(R.id.btnImportOcr);
+        Button generateButton = findViewById(R.id.btnGenerateWorkload);
         RecyclerView recyclerView = findViewById(R.id.processRecyclerView);
         txtResults = findViewById(R.id.txtResults);
+        simulationProgress = findViewById(R.id.simulationProgress);
 
-        adapter = new ProcessAdapter(processList);
+        adapter = new ProcessAdapter();
+        recyclerView.setHasFixedSize(true);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        // Marks the end of startup for reportFullyDrawn-based startup metrics
+        recyclerView.post(this::reportFullyDrawn);
 
         // Add process
         addButton.setOnClickListener(v -> {
             String name = editName.getText().toString().trim();
-            if (name.isEmpty()) name = "P" + (processList.size() + 1);
-            int arrival = parseIntOrZero(editArrival.getText().toString());
-            int burst = parseIntOrZero(editBurst.getText().toString());
+            if (name.isEmpty()) name = "P" + (workloadSize() + 1);
+            long arrival = parseLongOrZero(editArrival.getText().toString());
+            long burst = parseLongOrZero(editBurst.getText().toString());
             int priority = editPriority.getText().toString().isEmpty() ? -1 :
                     Integer.parseInt(editPriority.getText().toString());
-            processList.add(new ProcessModel(name, arrival, burst, priority));
-            adapter.notifyDataSetChanged();
+            if (importedTable != null) {
+                ProcessTable edited = importedTable.copy(1);
+                edited.add(name, arrival, burst, priority);
+                importedTable = edited;
+                showImportedCount();
+            } else {
+                adapter.add(new ProcessModel(name, arrival, burst, priority));
+            }
             editName.setText("");
             editArrival.setText("");
             editBurst.setText("");
@@ -71,63 +141,285 @@ public class MainActivity extends AppCompatActivity {
         // Run simulation
         runButton.setOnClickListener(v -> {
             int selectedId = algorithmGroup.getCheckedRadioButtonId();
-            if (selectedId == R.id.radioFcfs) runFCFS();
-            else if (selectedId == R.id.radioSjf) runSJF();
-            else if (selectedId == R.id.radioRoundRobin) runRoundRobin(2);
-            else if (selectedId == R.id.radioPriority) runPriority();
+            if (selectedId == R.id.radioFcfs) runSimulation("FCFS Gantt Chart", new FcfsScheduler());
+            else if (selectedId == R.id.radioSjf) runSimulation("SJF Gantt Chart", new SjfScheduler());
+            else if (selectedId == R.id.radioRoundRobin)
+                runSimulation("Round Robin Gantt Chart", new RoundRobinScheduler(readQuantum()));
+            else if (selectedId == R.id.radioPriority)
+                runSimulation("Priority Gantt Chart", new PriorityScheduler());
+            else if (selectedId == R.id.radioSrtf) runSimulation("SRTF Gantt Chart", new SrtfScheduler());
+            else if (selectedId == R.id.radioPreemptivePriority)
+                runSimulation("Preemptive Priority Gantt Chart", new PreemptivePriorityScheduler(readAgingInterval()));
+            else if (selectedId == R.id.radioMlfq)
+                runSimulation("MLFQ Gantt Chart", new MlfqScheduler(MLFQ_LEVELS, readQuantum()));
+            else if (selectedId == R.id.radioCfs) runSimulation("CFS Gantt Chart", new CfsScheduler());
         });
 
         // Clear processes
         clearButton.setOnClickListener(v -> {
-            processList.clear();
-            adapter.notifyDataSetChanged();
+            cancelSimulation();
+            if (ocrImporter != null) ocrImporter.cancel();
+            importedTable = null;
+            adapter.clear();
             txtResults.setText("");
         });
+
+        importButton.setOnClickListener(v -> importLauncher.launch(new String[]{"*/*"}));
+        exportButton.setOnClickListener(v -> exportLauncher.launch("workload.trace"));
+        ocrButton.setOnClickListener(v -> ocrLauncher.launch(new String[]{"image/*", "application/pdf"}));
+        generateButton.setOnClickListener(v -> generateWorkload());
+    }
+
+    private int workloadSize() {
+        return importedTable != null ? importedTable.size() : adapter.getItemCount();
+    }
+
+    private ProcessTable currentWorkload() {
+        return importedTable != null ? importedTable : ProcessTable.of(adapter.getProcesses());
+    }
+
+    // Loads in the background; small workloads become editable list rows, large ones stay a table
+    private void importWorkload(Uri uri) {
+        if (uri == null) return;
+        simulationProgress.setVisibility(View.VISIBLE);
+        simulationRunner.run(monitor -> TraceDocuments.readWorkload(getContentResolver(), uri),
+                new SimulationRunner.Callback<ProcessTable>() {
+                    @Override
+                    public void onProgress(int percent) {
+                    }
+
+                    @Override
+                    public void onResult(ProcessTable table) {
+                        simulationProgress.setVisibility(View.GONE);
+                        setWorkload(table, R.string.imported_processes);
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        simulationProgress.setVisibility(View.GONE);
+                        showFileError(error);
+                    }
+                });
+    }
+
+    // Same count, seed and shape always give the same workload; no seed picks a random one
+    private void generateWorkload() {
+        long count = Math.min(parseLongOrZero(((EditText) findViewById(R.id.editGenerateCount)).getText().toString()),
+                MAX_GENERATED_PROCESSES);
+        if (count <= 0) return;
+        String seedText = ((EditText) findViewById(R.id.editGenerateSeed)).getText().toString();
+        long seed = seedText.isEmpty() ? System.nanoTime() : parseLongOrZero(seedText);
+        int shapeId = ((RadioGroup) findViewById(R.id.burstShapeGroup)).getCheckedRadioButtonId();
+        WorkloadGenerator.BurstShape shape = shapeId == R.id.radioBurstPareto ? WorkloadGenerator.BurstShape.PARETO
+                : shapeId == R.id.radioBurstBimodal ? WorkloadGenerator.BurstShape.BIMODAL
+                : WorkloadGenerator.BurstShape.EXPONENTIAL;
+        WorkloadGenerator generator = new WorkloadGenerator(count, seed).bursts(shape, 10);
+        if (((CheckBox) findViewById(R.id.chkDiurnal)).isChecked()) {
+            generator.diurnal(Math.max(1, count * 10.0 / DIURNAL_DAYS), DIURNAL_AMPLITUDE);
+        }
+
+        simulationProgress.setProgress(0);
+        simulationProgress.setVisibility(View.VISIBLE);
+        simulationRunner.run(generator::generate, new SimulationRunner.Callback<ProcessTable>() {
+            @Override
+            public void onProgress(int percent) {
+                simulationProgress.setProgress(percent);
+            }
+
+            @Override
+            public void onResult(ProcessTable table) {
+                simulationProgress.setVisibility(View.GONE);
+                setWorkload(table, R.string.generated_processes);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                showRunError(error);
+            }
+        });
+    }
+
+    // Replaces the workload; small ones become editable list rows, large ones stay a table
+    private void setWorkload(ProcessTable table, int countText) {
+        importedTable = null;
+        adapter.clear();
+        if (table.size() <= MAX_LISTED_PROCESSES) {
+            ArrayList<ProcessModel> rows = new ArrayList<>(table.size());
+            for (int id = 0; id < table.size(); id++) {
+                rows.add(new ProcessModel(table.name(id), table.arrival(id), table.burst(id), table.priority(id)));
+            }
+            adapter.addAll(rows);
+            txtResults.setText(R.string.process_queue);
+        } else {
+            importedTable = table;
+            importedCountText = countText;
+            showImportedCount();
+        }
+    }
+
+    private void exportWorkload(Uri uri) {
+        if (uri == null) return;
+        ProcessTable table = currentWorkload();
+        exportRunner.run(monitor -> {
+            TraceDocuments.writeWorkload(getContentResolver(), uri, table, getCacheDir());
+            return uri;
+        }, new SimulationRunner.Callback<Uri>() {
+            @Override
+            public void onProgress(int percent) {
+            }
+
+            @Override
+            public void onResult(Uri result) {
+                Toast.makeText(MainActivity.this, R.string.export_done, Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                showFileError(error);
+            }
+        });
+    }
+
+    // Recognised rows are appended page by page as they arrive
+    private void importWithOcr(Uri uri) {
+        if (uri == null) return;
+        if (ocrImporter == null) ocrImporter = new OcrImporter(this);
+        ocrImporter.start(getContentResolver(), uri, new OcrImporter.Listener() {
+            @Override
+            public void onRows(List<ProcessModel> rows) {
+                addRecognisedRows(rows);
+            }
+
+            @Override
+            public void onFinished(int rowCount) {
+                Toast.makeText(MainActivity.this, getString(R.string.ocr_done, rowCount), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                showFileError(error);
+            }
+        });
+    }
+
+    private void addRecognisedRows(List<ProcessModel> rows) {
+        if (importedTable != null) {
+            ProcessTable edited = importedTable.copy(rows.size());
+            for (ProcessModel p : rows) {
+                edited.add(p.name != null ? p.name : "P" + (edited.size() + 1), p.arrival, p.burst, p.priority);
+            }
+            importedTable = edited;
+            showImportedCount();
+            return;
+        }
+        int start = adapter.getItemCount();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).name == null) rows.get(i).name = "P" + (start + i + 1);
+        }
+        adapter.addAll(rows); // one range insertion at the end
+    }
+
+    private void showImportedCount() {
+        txtResults.setText(getString(importedCountText, importedTable.size()));
     }
 
-    private int parseIntOrZero(String s) {
+    private void showFileError(Exception error) {
+        Toast.makeText(this, getString(R.string.file_failed, error.getMessage()), Toast.LENGTH_LONG).show();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        cancelSimulation();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        simulationRunner.shutdown();
+        exportRunner.shutdownAfterCurrent();
+        if (ocrImporter != null) ocrImporter.shutdown();
+    }
+
+    private long parseLongOrZero(String s) {
         try {
-            return Integer.parseInt(s);
+            return Long.parseLong(s);
         } catch (NumberFormatException e) {
             return 0;
         }
     }
 
-    private void displayResult(String title, ArrayList<GanttChartView.GanttBlock> blocks,
-                               HashMap<String, Integer> waitingTimes,
-                               HashMap<String, Integer> turnaroundTimes) {
+    private long readQuantum() {
+        long quantum = parseLongOrZero(editQuantum.getText().toString());
+        return quantum > 0 ? quantum : DEFAULT_QUANTUM;
+    }
 
-        StringBuilder ganttText = new StringBuilder();
-        int totalWT = 0, totalTAT = 0;
+    // Empty means the default; an explicit 0 turns aging off
+    private long readAgingInterval() {
+        String text = editAging.getText().toString();
+        return text.isEmpty() ? DEFAULT_AGING_INTERVAL : parseLongOrZero(text);
+    }
 
-        for (GanttChartView.GanttBlock block : blocks) {
-            ganttText.append(block.name).append(" [")
-                    .append(block.start).append("-")
-                    .append(block.end).append("]  ");
-        }
+    private int readCpuCount() {
+        long cpus = parseLongOrZero(editCpus.getText().toString());
+        return cpus > 0 ? (int) Math.min(cpus, MAX_CPUS) : 1;
+    }
 
-        int n = waitingTimes.size();
-        for (String name : waitingTimes.keySet()) {
-            totalWT += waitingTimes.get(name);
-            totalTAT += turnaroundTimes.get(name);
-        }
+    private SmpScheduler.Balancing readBalancing() {
+        int selectedId = balancingGroup.getCheckedRadioButtonId();
+        if (selectedId == R.id.radioPerCpu) return SmpScheduler.Balancing.PER_CPU;
+        if (selectedId == R.id.radioWorkStealing) return SmpScheduler.Balancing.WORK_STEALING;
+        return SmpScheduler.Balancing.GLOBAL_QUEUE;
+    }
 
-        double avgWT = n > 0 ? (double) totalWT / n : 0;
-        double avgTAT = n > 0 ? (double) totalTAT / n : 0;
-        double throughput = n > 0 && !blocks.isEmpty() ?
-                (double) n / (blocks.get(blocks.size() - 1).end) : 0;
+    private void displayResult(String title, ScheduleResult result, RunMetrics metrics) {
+        showResult(title, new ScheduleResult[]{result}, result.getStats(), "", metrics);
+    }
 
-        String stats = "Avg Waiting Time: " + String.format("%.2f", avgWT) +
-                "\nAvg Turnaround Time: " + String.format("%.2f", avgTAT) +
-                "\nThroughput: " + String.format("%.2f", throughput) + " processes/unit time";
+    private void displayResult(String title, SmpScheduleResult result, RunMetrics metrics) {
+        StringBuilder perCpu = new StringBuilder("\nCPUs: " + result.getCpuCount() +
+                "\nMigrations: " + result.getMigrationCount());
+        if (result.getCpuCount() <= MAX_LISTED_CPUS) {
+            for (int cpu = 0; cpu < result.getCpuCount(); cpu++) {
+                perCpu.append("\nCPU ").append(cpu + 1).append(" Utilisation: ")
+                        .append(String.format("%.1f", result.getCpuUtilisation(cpu) * 100)).append("%");
+            }
+        } else {
+            double min = 1, max = 0;
+            int idle = 0;
+            for (int cpu = 0; cpu < result.getCpuCount(); cpu++) {
+                double utilisation = result.getCpuUtilisation(cpu);
+                min = Math.min(min, utilisation);
+                max = Math.max(max, utilisation);
+                if (utilisation == 0) idle++;
+            }
+            perCpu.append("\nPer-CPU Utilisation min/max: ").append(String.format("%.1f", min * 100))
+                    .append("% / ").append(String.format("%.1f", max * 100)).append("%")
+                    .append("\nCPUs Never Used: ").append(idle);
+        }
+        showResult(title, result.getLanes(), result.getStats(), perCpu.toString(), metrics);
+    }
 
-        // Prepare intent
+    private void showResult(String title, ScheduleResult[] lanes, ScheduleStats summary, String extraStats,
+                            RunMetrics metrics) {
+        RunningStats wt = summary.getWaitingTime();
+        RunningStats tat = summary.getTurnaroundTime();
+        String stats = "Avg Waiting Time: " + String.format("%.2f", wt.getMean()) +
+                "\nWaiting Time p50/p95/p99: " + wt.getPercentile(50) + " / " +
+                wt.getPercentile(95) + " / " + wt.getPercentile(99) +
+                "\nAvg Turnaround Time: " + String.format("%.2f", tat.getMean()) +
+                "\nTurnaround Time p50/p95/p99: " + tat.getPercentile(50) + " / " +
+                tat.getPercentile(95) + " / " + tat.getPercentile(99) +
+                "\nCPU Utilisation: " + String.format("%.1f", summary.getCpuUtilisation() * 100) + "%" +
+                "\nIdle Time: " + summary.getIdleTime() +
+                "\nThroughput: " + String.format("%.2f", summary.getThroughput()) + " processes/unit time" +
+                extraStats;
+
+        // Only the id crosses the Intent; the result itself stays in this process
+        long resultId = ResultStore.getInstance().put(new ResultStore.Entry(title,
+                getAlgorithmDescription(title), stats, lanes, metrics));
         Intent intent = new Intent(this, ResultActivity.class);
-        intent.putExtra("title", title);
-        intent.putExtra("description", getAlgorithmDescription(title));
-        intent.putExtra("gantt", ganttText.toString());
-        intent.putExtra("stats", stats);
-        intent.putParcelableArrayListExtra("blocks", (ArrayList<? extends Parcelable>) blocks);
+        intent.putExtra(ResultActivity.EXTRA_RESULT_ID, resultId);
         startActivity(intent);
     }
 
@@ -165,6 +457,38 @@ public class MainActivity extends AppCompatActivity {
                         "🔹 <b>Disadvantage:</b> Performance depends on time quantum<br><br>" +
                         "<i>Use case:</i> Ideal for time-sharing systems and multitasking environments.";
 
+            case "SRTF Gantt Chart":
+                return "<b>Shortest Remaining Time First (SRTF)</b><br><br>" +
+                        "🔹 <b>Type:</b> Preemptive<br>" +
+                        "🔹 <b>Strategy:</b> Runs the process with the least remaining burst; a shorter arrival takes over the CPU.<br>" +
+                        "🔹 <b>Advantage:</b> Lowest average waiting time of all algorithms<br>" +
+                        "🔹 <b>Disadvantage:</b> Long processes can starve<br><br>" +
+                        "<i>Use case:</i> Interactive systems where short requests should finish fast.";
+
+            case "Preemptive Priority Gantt Chart":
+                return "<b>Preemptive Priority with Aging</b><br><br>" +
+                        "🔹 <b>Type:</b> Preemptive<br>" +
+                        "🔹 <b>Strategy:</b> A higher-priority arrival takes over the CPU (lower number = higher priority); waiting processes gain one level per aging interval.<br>" +
+                        "🔹 <b>Advantage:</b> Important tasks respond immediately<br>" +
+                        "🔹 <b>Disadvantage:</b> More context switches than the non-preemptive version<br><br>" +
+                        "<i>Use case:</i> Real-time style workloads where low priorities must still progress.";
+
+            case "MLFQ Gantt Chart":
+                return "<b>Multi-Level Feedback Queue (MLFQ)</b><br><br>" +
+                        "🔹 <b>Type:</b> Preemptive<br>" +
+                        "🔹 <b>Strategy:</b> New processes start in the top queue; using a whole quantum moves a process down to a queue with a doubled quantum.<br>" +
+                        "🔹 <b>Advantage:</b> Favours short and interactive jobs without knowing burst times<br>" +
+                        "🔹 <b>Disadvantage:</b> CPU-bound jobs can starve at the bottom level<br><br>" +
+                        "<i>Use case:</i> General-purpose operating systems.";
+
+            case "CFS Gantt Chart":
+                return "<b>Completely Fair Scheduler (CFS)</b><br><br>" +
+                        "🔹 <b>Type:</b> Preemptive<br>" +
+                        "🔹 <b>Strategy:</b> Runs the process with the least weighted virtual runtime; priority acts as the nice value.<br>" +
+                        "🔹 <b>Advantage:</b> Proportional, starvation-free sharing of the CPU<br>" +
+                        "🔹 <b>Disadvantage:</b> Frequent context switches when many processes are ready<br><br>" +
+                        "<i>Use case:</i> The default scheduler of the Linux kernel.";
+
             default:
                 return "<b>CPU Scheduling Algorithm</b><br><br>" +
                         "Schedules processes based on specific criteria like arrival time, burst time, or priority.<br>" +
@@ -173,128 +497,67 @@ public class MainActivity extends AppCompatActivity {
     }
 
 
-    private void runFCFS() {
-        ArrayList<ProcessModel> list = new ArrayList<>(processList);
-        list.sort(Comparator.comparingInt(p -> p.arrival));
-        ArrayList<GanttChartView.GanttBlock> blocks = new ArrayList<>();
-        HashMap<String, Integer> waiting = new HashMap<>();
-        HashMap<String, Integer> turnaround = new HashMap<>();
-        int time = 0;
-
-        for (ProcessModel p : list) {
-            int start = Math.max(time, p.arrival);
-            int wt = start - p.arrival;
-            int tat = wt + p.burst;
-            waiting.put(p.name, wt);
-            turnaround.put(p.name, tat);
-            blocks.add(new GanttChartView.GanttBlock(p.name, start, start + p.burst));
-            time = start + p.burst;
-        }
-        displayResult("FCFS Gantt Chart", blocks, waiting, turnaround);
-    }
+    // Runs in the background; a new run replaces one still in progress
+    private void runSimulation(String title, Scheduler scheduler) {
+        simulationProgress.setProgress(0);
+        simulationProgress.setVisibility(View.VISIBLE);
+        ProcessTable table = currentWorkload();
+        int cpus = readCpuCount();
+        RunMetrics metrics = new RunMetrics();
+        if (cpus > 1) {
+            SmpScheduler smp = new SmpScheduler(cpus, readBalancing(), scheduler);
+            simulationRunner.run(monitor -> cache().schedule(smp, table, metrics.wrap(monitor)), new SimulationRunner.Callback<SmpScheduleResult>() {
+                @Override
+                public void onProgress(int percent) {
+                    simulationProgress.setProgress(percent);
+                }
 
-    private void runSJF() {
-        ArrayList<ProcessModel> list = new ArrayList<>(processList);
-        list.sort(Comparator.comparingInt(p -> p.arrival));
-        ArrayList<ProcessModel> readyQueue = new ArrayList<>();
-        ArrayList<GanttChartView.GanttBlock> blocks = new ArrayList<>();
-        HashMap<String, Integer> waiting = new HashMap<>();
-        HashMap<String, Integer> turnaround = new HashMap<>();
-        int time = 0;
-
-        while (!list.isEmpty() || !readyQueue.isEmpty()) {
-            for (Iterator<ProcessModel> it = list.iterator(); it.hasNext();) {
-                ProcessModel p = it.next();
-                if (p.arrival <= time) {
-                    readyQueue.add(p);
-                    it.remove();
+                @Override
+                public void onResult(SmpScheduleResult result) {
+                    simulationProgress.setVisibility(View.GONE);
+                    displayResult(title, result, metrics);
                 }
-            }
-            if (!readyQueue.isEmpty()) {
-                readyQueue.sort(Comparator.comparingInt(p -> p.burst));
-                ProcessModel shortest = readyQueue.remove(0);
-                waiting.put(shortest.name, time - shortest.arrival);
-                turnaround.put(shortest.name, time - shortest.arrival + shortest.burst);
-                blocks.add(new GanttChartView.GanttBlock(shortest.name, time, time + shortest.burst));
-                time += shortest.burst;
-            } else {
-                time++;
-            }
-        }
-        displayResult("SJF Gantt Chart", blocks, waiting, turnaround);
-    }
 
-    private void runRoundRobin(int quantum) {
-        ArrayList<ProcessModel> list = new ArrayList<>(processList);
-        list.sort(Comparator.comparingInt(p -> p.arrival));
-        Queue<ProcessModel> queue = new LinkedList<>();
-        HashMap<String, Integer> remaining = new HashMap<>();
-        HashMap<String, Integer> waiting = new HashMap<>();
-        HashMap<String, Integer> turnaround = new HashMap<>();
-        ArrayList<GanttChartView.GanttBlock> blocks = new ArrayList<>();
-        int time = 0, index = 0;
-
-        for (ProcessModel p : list) remaining.put(p.name, p.burst);
-
-        while (!queue.isEmpty() || index < list.size()) {
-            while (index < list.size() && list.get(index).arrival <= time) {
-                queue.add(list.get(index));
-                index++;
-            }
-            if (!queue.isEmpty()) {
-                ProcessModel current = queue.poll();
-                int runTime = Math.min(quantum, remaining.get(current.name));
-                blocks.add(new GanttChartView.GanttBlock(current.name, time, time + runTime));
-                time += runTime;
-                remaining.put(current.name, remaining.get(current.name) - runTime);
-                if (remaining.get(current.name) > 0) {
-                    while (index < list.size() && list.get(index).arrival <= time) {
-                        queue.add(list.get(index));
-                        index++;
-                    }
-                    queue.add(current);
-                } else {
-                    int wt = time - current.arrival - current.burst;
-                    int tat = time - current.arrival;
-                    waiting.put(current.name, wt);
-                    turnaround.put(current.name, tat);
+                @Override
+                public void onError(Exception error) {
+                    showRunError(error);
                 }
-            } else {
-                time++;
-            }
+            });
+            return;
         }
-        displayResult("Round Robin Gantt Chart", blocks, waiting, turnaround);
-    }
+        simulationRunner.run(monitor -> cache().schedule(scheduler, table, metrics.wrap(monitor)), new SimulationRunner.Callback<ScheduleResult>() {
+            @Override
+            public void onProgress(int percent) {
+                simulationProgress.setProgress(percent);
+            }
 
-    private void runPriority() {
-        ArrayList<ProcessModel> list = new ArrayList<>(processList);
-        list.removeIf(p -> p.priority < 0);
-        list.sort(Comparator.comparingInt(p -> p.arrival));
-        ArrayList<ProcessModel> readyQueue = new ArrayList<>();
-        ArrayList<GanttChartView.GanttBlock> blocks = new ArrayList<>();
-        HashMap<String, Integer> waiting = new HashMap<>();
-        HashMap<String, Integer> turnaround = new HashMap<>();
-        int time = 0;
-
-        while (!list.isEmpty() || !readyQueue.isEmpty()) {
-            for (Iterator<ProcessModel> it = list.iterator(); it.hasNext();) {
-                ProcessModel p = it.next();
-                if (p.arrival <= time) {
-                    readyQueue.add(p);
-                    it.remove();
-                }
+            @Override
+            public void onResult(ScheduleResult result) {
+                simulationProgress.setVisibility(View.GONE);
+                displayResult(title, result, metrics);
             }
-            if (!readyQueue.isEmpty()) {
-                readyQueue.sort(Comparator.comparingInt(p -> p.priority));
-                ProcessModel highest = readyQueue.remove(0);
-                waiting.put(highest.name, time - highest.arrival);
-                turnaround.put(highest.name, time - highest.arrival + highest.burst);
-                blocks.add(new GanttChartView.GanttBlock(highest.name, time, time + highest.burst));
-                time += highest.burst;
-            } else {
-                time++;
+
+            @Override
+            public void onError(Exception error) {
+                showRunError(error);
             }
-        }
-        displayResult("Priority Gantt Chart", blocks, waiting, turnaround);
+        });
+    }
+
+    private void showRunError(Exception error) {
+        simulationProgress.setVisibility(View.GONE);
+        Throwable cause = error instanceof ExecutionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof OutOfMemoryError ? getString(R.string.run_out_of_memory)
+                : cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        Toast.makeText(this, getString(R.string.run_failed, message), Toast.LENGTH_LONG).show();
+    }
+
+    private ResultCache cache() {
+        return ResultStore.getInstance().getCache(getApplicationContext());
+    }
+
+    private void cancelSimulation() {
+        simulationRunner.cancel();
+        simulationProgress.setVisibility(View.GONE);
     }
 }
@@ -0,0 +1,259 @@
+package com.idroid.scheduler;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.pdf.PdfRenderer;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.common.MlKit;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+import com.idroid.scheduler.engine.ProcessModel;
+import com.idroid.scheduler.engine.ProcessRowParser;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads process rows out of an image or a PDF with ML Kit text recognition and hands them back a
+ * page at a time on the main thread. Pages are decoded no larger than {@link #MAX_PAGE_SIDE} and
+ * only one page bitmap is alive at once, so a long PDF costs one page of memory. One import runs
+ * at a time; starting another cancels it and drops whatever it had not delivered yet.
+ *
+ * <p>The manifest removes ML Kit's startup provider, so ML Kit is initialised by the first
+ * importer instead of on every app launch.
+ */
+final class OcrImporter {
+
+    interface Listener {
+        // Rows recognised on one page, in reading order; names are null where the row had none
+        void onRows(List<ProcessModel> rows);
+
+        void onFinished(int rowCount);
+
+        void onError(Exception error);
+    }
+
+    // Enough for ~10 pt text on an A4 page, far below a camera photo's full size
+    private static final int MAX_PAGE_SIDE = 2048;
+    private static final float MAX_PDF_SCALE = 4f;
+    private static final String PDF_MIME_TYPE = "application/pdf";
+    private static boolean mlKitInitialised; // guarded by OcrImporter.class
+
+    // One worker and room for one waiting import; an older waiting import is dropped
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.DiscardOldestPolicy());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final TextRecognizer recognizer;
+    private Future<?> current;
+    private int generation; // only touched on the main thread
+
+    OcrImporter(Context context) {
+        synchronized (OcrImporter.class) {
+            if (!mlKitInitialised) {
+                MlKit.initialize(context.getApplicationContext());
+                mlKitInitialised = true;
+            }
+        }
+        recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+    }
+
+    void start(ContentResolver resolver, Uri uri, Listener listener) {
+        cancel();
+        final int runGeneration = generation;
+        current = executor.submit(() -> {
+            try {
+                int rows = PDF_MIME_TYPE.equals(resolver.getType(uri))
+                        ? readPdf(resolver, uri, runGeneration, listener)
+                        : readImage(resolver, uri, runGeneration, listener);
+                deliver(runGeneration, () -> listener.onFinished(rows));
+            } catch (InterruptedException ignored) {
+                // cancelled; nothing more to deliver
+            } catch (ExecutionException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                deliver(runGeneration, () -> listener.onError(cause));
+            } catch (Exception e) {
+                deliver(runGeneration, () -> listener.onError(e));
+            }
+        });
+    }
+
+    void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        recognizer.close();
+    }
+
+    private int readImage(ContentResolver resolver, Uri uri, int runGeneration, Listener listener)
+            throws IOException, ExecutionException, InterruptedException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) throw new IOException("Not an image or PDF");
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight);
+        options.inJustDecodeBounds = false;
+        Bitmap bitmap;
+        try (InputStream in = open(resolver, uri)) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (bitmap == null) throw new IOException("Not an image or PDF");
+        try {
+            return recognise(InputImage.fromBitmap(bitmap, rotationDegrees(resolver, uri)), runGeneration, listener);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    // Renders page by page into one reused bitmap
+    private int readPdf(ContentResolver resolver, Uri uri, int runGeneration, Listener listener)
+            throws IOException, ExecutionException, InterruptedException {
+        try (ParcelFileDescriptor fd = resolver.openFileDescriptor(uri, "r")) {
+            if (fd == null) throw new FileNotFoundException(uri.toString());
+            PdfRenderer renderer = new PdfRenderer(fd);
+            Bitmap bitmap = null;
+            int rows = 0;
+            try {
+                for (int i = 0; i < renderer.getPageCount(); i++) {
+                    if (Thread.interrupted()) throw new InterruptedException();
+                    PdfRenderer.Page page = renderer.openPage(i);
+                    try {
+                        float scale = Math.min(MAX_PDF_SCALE,
+                                MAX_PAGE_SIDE / (float) Math.max(page.getWidth(), page.getHeight()));
+                        int width = Math.max(1, Math.round(page.getWidth() * scale));
+                        int height = Math.max(1, Math.round(page.getHeight() * scale));
+                        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+                            if (bitmap != null) bitmap.recycle();
+                            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                        }
+                        // Pages render onto transparency, which reads as black
+                        bitmap.eraseColor(Color.WHITE);
+                        page.render(bitmap, null, null, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+                    } finally {
+                        page.close();
+                    }
+                    rows += recognise(InputImage.fromBitmap(bitmap, 0), runGeneration, listener);
+                }
+            } finally {
+                if (bitmap != null) bitmap.recycle();
+                renderer.close();
+            }
+            return rows;
+        }
+    }
+
+    private int recognise(InputImage image, int runGeneration, Listener listener)
+            throws ExecutionException, InterruptedException {
+        Text text = Tasks.await(recognizer.process(image));
+        List<ProcessModel> rows = parseRows(text);
+        if (!rows.isEmpty()) deliver(runGeneration, () -> listener.onRows(rows));
+        return rows.size();
+    }
+
+    // Table columns often come back as separate blocks, so lines are regrouped into rows by
+    // their vertical position and read left to right
+    static List<ProcessModel> parseRows(Text text) {
+        List<Text.Line> lines = new ArrayList<>();
+        for (Text.TextBlock block : text.getTextBlocks()) {
+            for (Text.Line line : block.getLines()) {
+                if (line.getBoundingBox() != null) lines.add(line);
+            }
+        }
+        Collections.sort(lines, (a, b) -> Integer.compare(a.getBoundingBox().centerY(), b.getBoundingBox().centerY()));
+
+        List<ProcessModel> rows = new ArrayList<>();
+        List<Text.Line> row = new ArrayList<>();
+        int rowCenter = 0, rowHalfHeight = 0;
+        for (Text.Line line : lines) {
+            Rect box = line.getBoundingBox();
+            if (!row.isEmpty() && Math.abs(box.centerY() - rowCenter) > rowHalfHeight) {
+                addRow(row, rows);
+                row.clear();
+            }
+            if (row.isEmpty()) {
+                rowCenter = box.centerY();
+                rowHalfHeight = Math.max(1, box.height() / 2);
+            }
+            row.add(line);
+        }
+        addRow(row, rows);
+        return rows;
+    }
+
+    private static void addRow(List<Text.Line> row, List<ProcessModel> rows) {
+        if (row.isEmpty()) return;
+        Collections.sort(row, (a, b) -> Integer.compare(a.getBoundingBox().left, b.getBoundingBox().left));
+        StringBuilder joined = new StringBuilder();
+        for (Text.Line line : row) joined.append(line.getText()).append(' ');
+        ProcessModel process = ProcessRowParser.parse(joined);
+        if (process != null) rows.add(process);
+    }
+
+    // Largest power of two that brings the longer side down to MAX_PAGE_SIDE
+    static int sampleSize(int width, int height) {
+        int sampleSize = 1;
+        while (Math.max(width, height) / sampleSize > MAX_PAGE_SIDE) sampleSize *= 2;
+        return sampleSize;
+    }
+
+    private static int rotationDegrees(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            switch (new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) throw new FileNotFoundException(uri.toString());
+        return in;
+    }
+
+    private void deliver(int runGeneration, Runnable action) {
+        mainHandler.post(() -> {
+            if (runGeneration == generation) action.run();
+        });
+    }
+}
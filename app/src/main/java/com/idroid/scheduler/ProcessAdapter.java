@@ -9,13 +9,52 @@ import android.widget.ImageButton;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
+
+import com.idroid.scheduler.engine.ProcessModel;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Lists the processes of the current workload and owns them. Every edit goes through one of
+ * the methods below, which tells the RecyclerView exactly which rows moved, so a delete or an
+ * append rebinds only those rows however long the list is. Listed processes must not be
+ * modified in place.
+ */
 public class ProcessAdapter extends RecyclerView.Adapter<ProcessAdapter.ViewHolder> {
-    private final ArrayList<ProcessModel> processList;
 
-    public ProcessAdapter(ArrayList<ProcessModel> list) {
-        this.processList = list;
+    private final ArrayList<ProcessModel> processes = new ArrayList<>();
+
+    public ProcessAdapter() {
+        setHasStableIds(true);
+    }
+
+    // Read-only view; edit through the adapter
+    public List<ProcessModel> getProcesses() {
+        return Collections.unmodifiableList(processes);
+    }
+
+    public void add(ProcessModel process) {
+        processes.add(process);
+        notifyItemInserted(processes.size() - 1);
+    }
+
+    public void addAll(List<ProcessModel> added) {
+        int start = processes.size();
+        processes.addAll(added);
+        notifyItemRangeInserted(start, added.size());
+    }
+
+    public void remove(int position) {
+        processes.remove(position);
+        notifyItemRemoved(position);
+    }
+
+    public void clear() {
+        int count = processes.size();
+        processes.clear();
+        notifyItemRangeRemoved(0, count);
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -37,27 +76,32 @@ public class ProcessAdapter extends RecyclerView.Adapter<ProcessAdapter.ViewHold
     public ProcessAdapter.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_process, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        // One listener per holder; the position is looked up at click time, not captured at bind
+        holder.deleteBtn.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) remove(position);
+        });
+        return holder;
     }
 
     @SuppressLint("SetTextI18n")
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        ProcessModel p = processList.get(position);
+        ProcessModel p = processes.get(position);
         holder.txtName.setText(p.name);
         holder.txtArrival.setText("Arrival: " + p.arrival);
         holder.txtBurst.setText("Burst: " + p.burst);
         holder.txtPriority.setText("Priority: " + (p.priority == -1 ? "-" : p.priority));
-
-        holder.deleteBtn.setOnClickListener(v -> {
-            processList.remove(position);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, processList.size());
-        });
     }
 
     @Override
     public int getItemCount() {
-        return processList.size();
+        return processes.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return processes.get(position).id;
     }
 }
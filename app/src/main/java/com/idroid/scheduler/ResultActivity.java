@@ -1,20 +1,52 @@
 package com.idroid.scheduler;
 
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Html;
+import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.SeekBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
+import com.idroid.scheduler.engine.ScheduleResult;
 
 public class ResultActivity extends AppCompatActivity {
+    public static final String EXTRA_RESULT_ID = "resultId";
+    private static final float[] SPEEDS = {1, 2, 4, 8, 0.5f};
+    private static final int LANE_HEIGHT_DP = 30;
+    private static final int MAX_CHART_HEIGHT_DP = 480;
+    private static final long METRICS_REFRESH_MILLIS = 500;
 
-    TextView txtDescription, txtGantt, txtStats;
+    TextView txtDescription, txtStats, txtMetricsOverlay;
+    CheckBox chkShowMetrics;
+    RecyclerView blockList;
     GanttChartView ganttChartView;
-    Button btnPlay, btnPause, btnStep;
+    Button btnPlay, btnPause, btnStep, btnSpeed, btnExport;
+    SeekBar seekPlayback;
+    private int speedIndex = 0;
+    private ResultStore.Entry entry;
+    private final SimulationRunner exportRunner = new SimulationRunner();
+    private final Handler metricsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshMetrics = new Runnable() {
+        @Override
+        public void run() {
+            txtMetricsOverlay.setText(entry.metrics.format());
+            metricsHandler.postDelayed(this, METRICS_REFRESH_MILLIS);
+        }
+    };
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(TraceDocuments.BINARY_MIME_TYPE), this::exportSchedule);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,36 +58,129 @@ public class ResultActivity extends AppCompatActivity {
         setSupportActionBar(toolbar);
 
         txtDescription = findViewById(R.id.txtDescription);
-        txtGantt = findViewById(R.id.txtGanttChart);
+        blockList = findViewById(R.id.blockRecyclerView);
         txtStats = findViewById(R.id.txtStats);
         ganttChartView = findViewById(R.id.ganttChartView);
         btnPlay = findViewById(R.id.btnPlay);
         btnPause = findViewById(R.id.btnPause);
         btnStep = findViewById(R.id.btnStep);
+        btnSpeed = findViewById(R.id.btnSpeed);
+        seekPlayback = findViewById(R.id.seekPlayback);
+        btnExport = findViewById(R.id.btnExportSchedule);
+        chkShowMetrics = findViewById(R.id.chkShowMetrics);
+        txtMetricsOverlay = findViewById(R.id.txtMetricsOverlay);
 
         // Retrieve data
-        String title = getIntent().getStringExtra("title");
-        String description = getIntent().getStringExtra("description");
-        String gantt = getIntent().getStringExtra("gantt");
-        String stats = getIntent().getStringExtra("stats");
-        ArrayList<GanttChartView.GanttBlock> blocks =
-                (ArrayList<GanttChartView.GanttBlock>) getIntent().getSerializableExtra("blocks");
+        entry = ResultStore.getInstance()
+                .get(getIntent().getLongExtra(EXTRA_RESULT_ID, -1));
+        if (entry == null) {
+            // Evicted, or the process was restarted; the caller has to run the simulation again
+            finish();
+            return;
+        }
 
         if (getSupportActionBar() != null) {
-            getSupportActionBar().setTitle(title);
+            getSupportActionBar().setTitle(entry.title);
         }
 
-        txtDescription.setText(Html.fromHtml(description, Html.FROM_HTML_MODE_COMPACT));
+        txtDescription.setText(Html.fromHtml(entry.description, Html.FROM_HTML_MODE_COMPACT));
 
-        txtGantt.setText("Gantt Chart:\n" + gantt);
-        txtStats.setText("Statistics:\n" + stats);
+        blockList.setHasFixedSize(true);
+        blockList.setLayoutManager(new LinearLayoutManager(this));
+        blockList.setAdapter(new BlockAdapter(entry.lanes));
+        txtStats.setText("Statistics:\n" + entry.stats);
 
-        if (blocks != null) {
-            ganttChartView.setBlocks(blocks);
+        if (entry.lanes.length > 1) {
+            // One lane per CPU, squeezed once they no longer fit
+            int heightDp = Math.min(entry.lanes.length * LANE_HEIGHT_DP, MAX_CHART_HEIGHT_DP);
+            ganttChartView.getLayoutParams().height =
+                    Math.round(heightDp * getResources().getDisplayMetrics().density);
         }
+        ganttChartView.setPlaybackListener((time, makespan) ->
+                seekPlayback.setProgress((int) (time * seekPlayback.getMax() / makespan)));
+        ganttChartView.setMetrics(entry.metrics);
+        ganttChartView.setLanes(entry.lanes);
 
         btnPlay.setOnClickListener(v -> ganttChartView.playAnimation());
         btnPause.setOnClickListener(v -> ganttChartView.pauseAnimation());
         btnStep.setOnClickListener(v -> ganttChartView.stepForward());
+        btnExport.setOnClickListener(v -> exportLauncher.launch("schedule.trace"));
+        btnSpeed.setOnClickListener(v -> {
+            speedIndex = (speedIndex + 1) % SPEEDS.length;
+            float speed = SPEEDS[speedIndex];
+            ganttChartView.setPlaybackSpeed(speed);
+            btnSpeed.setText(speed < 1 ? speed + "x" : (int) speed + "x");
+        });
+
+        chkShowMetrics.setOnCheckedChangeListener((button, checked) -> {
+            txtMetricsOverlay.setVisibility(checked ? View.VISIBLE : View.GONE);
+            updateMetricsRefresh();
+        });
+
+        long makespan = entry.makespan;
+        seekPlayback.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                if (fromUser) ganttChartView.seekTo(makespan * progress / seekBar.getMax());
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+                ganttChartView.pauseAnimation();
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        updateMetricsRefresh();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        metricsHandler.removeCallbacks(refreshMetrics);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        metricsHandler.removeCallbacks(refreshMetrics);
+        exportRunner.shutdownAfterCurrent();
+    }
+
+    // Refreshes the overlay while it is shown; frames keep adding to the metrics meanwhile
+    private void updateMetricsRefresh() {
+        metricsHandler.removeCallbacks(refreshMetrics);
+        if (entry != null && entry.metrics != null && chkShowMetrics.isChecked()) refreshMetrics.run();
+    }
+
+    private void exportSchedule(Uri uri) {
+        if (uri == null) return;
+        ScheduleResult[] lanes = entry.lanes;
+        exportRunner.run(monitor -> {
+            TraceDocuments.writeBlocks(getContentResolver(), uri, lanes, getCacheDir());
+            return uri;
+        }, new SimulationRunner.Callback<Uri>() {
+            @Override
+            public void onProgress(int percent) {
+            }
+
+            @Override
+            public void onResult(Uri result) {
+                Toast.makeText(ResultActivity.this, R.string.export_done, Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                Toast.makeText(ResultActivity.this, getString(R.string.file_failed, error.getMessage()),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
     }
 }
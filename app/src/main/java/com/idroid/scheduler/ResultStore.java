@@ -0,0 +1,88 @@
+package com.idroid.scheduler;
+
+import android.content.Context;
+
+import com.idroid.scheduler.engine.ResultCache;
+import com.idroid.scheduler.engine.RunMetrics;
+import com.idroid.scheduler.engine.ScheduleResult;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide holder for finished simulations. Activities pass the id returned by
+ * {@link #put} instead of the result itself, so large results never go through a Binder
+ * transaction. Only the most recently used entries are kept.
+ */
+public final class ResultStore {
+    private static final int MAX_ENTRIES = 4;
+    private static final String CACHE_DIRECTORY = "schedules";
+    private static final long MAX_DISK_BYTES = 64L << 20;
+    private static final ResultStore INSTANCE = new ResultStore();
+
+    private final LinkedHashMap<Long, Entry> entries =
+            new LinkedHashMap<Long, Entry>(MAX_ENTRIES + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+    private long nextId = 1;
+    private ResultCache cache;
+
+    private ResultStore() {
+    }
+
+    public static ResultStore getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized long put(Entry entry) {
+        long id = nextId++;
+        entries.put(id, entry);
+        return id;
+    }
+
+    /**
+     * Schedules already computed in this process, or earlier ones kept in the app's cache
+     * directory, so running or comparing the same workload again does not recompute it. Opens
+     * the directory on first use, so call it off the main thread.
+     */
+    public synchronized ResultCache getCache(Context context) {
+        if (cache == null) {
+            long maxBytes = Runtime.getRuntime().maxMemory() / 8;
+            try {
+                cache = new ResultCache(maxBytes, new File(context.getCacheDir(), CACHE_DIRECTORY), MAX_DISK_BYTES);
+            } catch (IllegalArgumentException e) {
+                cache = new ResultCache(maxBytes); // no usable directory; memory only
+            }
+        }
+        return cache;
+    }
+
+    // Null if the entry was evicted or the process was restarted since it was stored
+    public synchronized Entry get(long id) {
+        return entries.get(id);
+    }
+
+    public static final class Entry {
+        public final String title;
+        public final String description;
+        public final String stats;
+        public final ScheduleResult[] lanes; // one per CPU
+        public final long makespan;
+        public final RunMetrics metrics; // of the run that produced it, and of drawing it since
+
+        public Entry(String title, String description, String stats, ScheduleResult[] lanes, RunMetrics metrics) {
+            this.title = title;
+            this.description = description;
+            this.stats = stats;
+            this.lanes = lanes;
+            this.metrics = metrics;
+            long end = 0;
+            for (ScheduleResult lane : lanes) end = Math.max(end, lane.getMakespan());
+            this.makespan = end;
+        }
+    }
+}
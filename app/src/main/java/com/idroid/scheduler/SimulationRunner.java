@@ -0,0 +1,112 @@
+package com.idroid.scheduler;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.RunMonitor;
+import com.idroid.scheduler.engine.ScheduleResult;
+import com.idroid.scheduler.engine.Scheduler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one simulation at a time on a background thread and hands progress and the result back
+ * on the main thread. Starting a new run cancels the one in flight, and callbacks from a
+ * superseded or cancelled run are dropped. Other background jobs, such as loading a workload
+ * file, go through the same thread so they never overlap a simulation. File exports get a
+ * runner of their own, so that starting or stopping a run never interrupts a write.
+ */
+public class SimulationRunner {
+
+    public interface Callback<R> {
+        void onProgress(int percent);
+
+        void onResult(R result);
+
+        // The job threw; called on the main thread like the others. An Error, such as running
+        // out of memory, arrives wrapped in an ExecutionException.
+        default void onError(Exception error) {
+        }
+    }
+
+    // Work run in the background; polls the monitor the way the engine's schedulers do
+    public interface Job<R> {
+        R run(RunMonitor monitor) throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Future<?> current;
+    private int generation; // only touched on the main thread
+
+    public void run(Scheduler scheduler, ProcessTable table, Callback<ScheduleResult> callback) {
+        run(monitor -> scheduler.schedule(table, monitor), callback);
+    }
+
+    public <R> void run(Job<R> job, Callback<R> callback) {
+        cancel();
+        final int runGeneration = generation;
+        current = executor.submit(() -> {
+            RunMonitor monitor = new RunMonitor() {
+                private int lastPercent = -1;
+
+                @Override
+                public boolean isCancelled() {
+                    return Thread.currentThread().isInterrupted();
+                }
+
+                @Override
+                public void onProgress(long completed, long total) {
+                    int percent = total == 0 ? 100 : (int) (completed * 100 / total);
+                    if (percent == lastPercent) return;
+                    lastPercent = percent;
+                    deliver(runGeneration, () -> callback.onProgress(percent));
+                }
+            };
+            try {
+                R result = job.run(monitor);
+                deliver(runGeneration, () -> callback.onResult(result));
+            } catch (CancellationException ignored) {
+                // superseded or cancelled; nothing to deliver
+            } catch (Exception e) {
+                deliver(runGeneration, () -> callback.onError(e));
+            } catch (Error e) {
+                // The job's garbage is unreachable by now, so there is usually room to report it
+                ExecutionException wrapped = new ExecutionException(e);
+                deliver(runGeneration, () -> callback.onError(wrapped));
+            }
+        });
+    }
+
+    // Stops the run in flight, if any, without delivering anything more from it
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    // Lets the job in flight finish, e.g. a file being written, but delivers nothing more from it
+    public void shutdownAfterCurrent() {
+        generation++;
+        current = null;
+        executor.shutdown();
+    }
+
+    private void deliver(int runGeneration, Runnable action) {
+        mainHandler.post(() -> {
+            if (runGeneration == generation) action.run();
+        });
+    }
+}
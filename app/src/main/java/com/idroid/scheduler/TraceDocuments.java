@@ -0,0 +1,115 @@
+package com.idroid.scheduler;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.ScheduleResult;
+import com.idroid.scheduler.engine.TraceFiles;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Reads and writes {@link TraceFiles} through Storage Access Framework documents. A document
+ * whose name ends in .csv is CSV; anything else is the binary format, read through a memory
+ * map of the document's file descriptor. Call off the main thread.
+ *
+ * <p>Writes go to a scratch file first and are copied into the document only once complete, so
+ * an interrupted or failed export leaves the document as it was. The copy uses plain streams,
+ * which an interrupt does not close halfway.
+ */
+final class TraceDocuments {
+    static final String BINARY_MIME_TYPE = "application/octet-stream";
+
+    private TraceDocuments() {
+    }
+
+    static ProcessTable readWorkload(ContentResolver resolver, Uri uri) throws IOException {
+        if (isCsv(resolver, uri)) {
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) throw new FileNotFoundException(uri.toString());
+                return TraceFiles.readWorkloadCsv(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        try (ParcelFileDescriptor fd = resolver.openFileDescriptor(uri, "r")) {
+            if (fd == null) throw new FileNotFoundException(uri.toString());
+            try (FileInputStream in = new FileInputStream(fd.getFileDescriptor())) {
+                return TraceFiles.readWorkload(in.getChannel());
+            }
+        }
+    }
+
+    // scratchDirectory holds the file written before it is copied into the document
+    static void writeWorkload(ContentResolver resolver, Uri uri, ProcessTable table, File scratchDirectory)
+            throws IOException {
+        boolean csv = isCsv(resolver, uri);
+        writeThroughScratch(resolver, uri, scratchDirectory, out -> {
+            if (csv) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                TraceFiles.writeWorkloadCsv(table, writer);
+                writer.flush();
+            } else {
+                TraceFiles.writeWorkload(table, out.getChannel());
+            }
+        });
+    }
+
+    static void writeBlocks(ContentResolver resolver, Uri uri, ScheduleResult[] lanes, File scratchDirectory)
+            throws IOException {
+        boolean csv = isCsv(resolver, uri);
+        writeThroughScratch(resolver, uri, scratchDirectory, out -> {
+            if (csv) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                TraceFiles.writeBlocksCsv(lanes, writer);
+                writer.flush();
+            } else {
+                TraceFiles.writeBlocks(lanes, out.getChannel());
+            }
+        });
+    }
+
+    private interface Content {
+        void writeTo(FileOutputStream out) throws IOException;
+    }
+
+    private static void writeThroughScratch(ContentResolver resolver, Uri uri, File scratchDirectory,
+                                            Content content) throws IOException {
+        File scratch = File.createTempFile("export", ".part", scratchDirectory);
+        try {
+            try (FileOutputStream out = new FileOutputStream(scratch)) {
+                content.writeTo(out);
+            }
+            try (InputStream in = new FileInputStream(scratch);
+                 OutputStream out = resolver.openOutputStream(uri, "wt")) {
+                if (out == null) throw new FileNotFoundException(uri.toString());
+                byte[] buffer = new byte[64 * 1024];
+                for (int read; (read = in.read(buffer)) > 0; ) out.write(buffer, 0, read);
+            }
+        } finally {
+            scratch.delete();
+        }
+    }
+
+    private static boolean isCsv(ContentResolver resolver, Uri uri) {
+        String name = uri.getLastPathSegment();
+        try (Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) name = cursor.getString(0);
+        }
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+}
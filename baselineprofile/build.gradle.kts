@@ -0,0 +1,39 @@
+// Generates the app's baseline profile and measures cold start on a device. Generate with
+// ./gradlew :app:generateReleaseBaselineProfile, benchmark with
+// ./gradlew :baselineprofile:connectedBenchmarkReleaseAndroidTest
+// and override the startup budget with
+// -Pandroid.testInstrumentationRunnerArguments.startupBudgetMs=...
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.idroid.scheduler.baselineprofile"
+    compileSdk = 35
+
+    defaultConfig {
+        // Profile collection needs API 28+; rooted or API 33+ devices
+        minSdk = 28
+        targetSdk = 35
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    targetProjectPath = ":app"
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+}
+
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
@@ -0,0 +1,31 @@
+package com.idroid.scheduler.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Collects the classes and methods used by startup and by a first simulation into the app's
+ * baseline profile, so they are compiled ahead of time on install.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public final BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(Journeys.PACKAGE, scope -> {
+            scope.pressHome();
+            scope.startActivityAndWait();
+            Journeys.generateAndRun(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
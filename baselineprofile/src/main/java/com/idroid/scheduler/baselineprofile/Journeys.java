@@ -0,0 +1,48 @@
+package com.idroid.scheduler.baselineprofile;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * User journeys shared by profile generation and the benchmarks. Views are found by resource id
+ * and scrolled to, since most of the main form is below the fold.
+ */
+final class Journeys {
+    static final String PACKAGE = "com.idroid.scheduler";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {
+    }
+
+    // Generates a small workload, runs FCFS on it and waits for the result screen's chart
+    static void generateAndRun(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        scrollTo(device, "editGenerateCount").setText("1000");
+        scrollTo(device, "editGenerateSeed").setText("1");
+        scrollTo(device, "btnGenerateWorkload").click();
+        device.waitForIdle();
+        scrollTo(device, "radioFcfs").click();
+        scrollTo(device, "btnRunSimulation").click();
+        if (!device.wait(Until.hasObject(By.res(PACKAGE, "ganttChartView")), TIMEOUT_MS)) {
+            throw new AssertionError("result screen did not open");
+        }
+        device.pressBack();
+        device.waitForIdle();
+    }
+
+    private static UiObject2 scrollTo(UiDevice device, String id) {
+        UiObject2 view = device.findObject(By.res(PACKAGE, id));
+        if (view != null) return view;
+        for (Direction direction : new Direction[]{Direction.DOWN, Direction.UP}) {
+            UiObject2 scroller = device.findObject(By.scrollable(true));
+            if (scroller == null) break;
+            view = scroller.scrollUntil(direction, Until.findObject(By.res(PACKAGE, id)));
+            if (view != null) return view;
+        }
+        throw new AssertionError("no view " + id);
+    }
+}
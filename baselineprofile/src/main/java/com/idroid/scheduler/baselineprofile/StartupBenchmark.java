@@ -0,0 +1,85 @@
+package com.idroid.scheduler.baselineprofile;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import kotlin.Unit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cold start of the launcher activity. The two macrobenchmarks report time to initial and full
+ * display with and without the baseline profile. The budget test fails when the median cold
+ * start, as reported by {@code am start -W}, exceeds {@link #DEFAULT_BUDGET_MS} or the
+ * {@code startupBudgetMs} instrumentation argument.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+    private static final int BUDGET_RUNS = 5;
+    private static final long DEFAULT_BUDGET_MS = 800;
+    private static final Pattern TOTAL_TIME = Pattern.compile("TotalTime: (\\d+)");
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    @Test
+    public void coldStartWithinBudget() throws IOException {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        long budget = Long.parseLong(arguments.getString("startupBudgetMs", String.valueOf(DEFAULT_BUDGET_MS)));
+        UiDevice device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        long[] times = new long[BUDGET_RUNS];
+        for (int i = 0; i < BUDGET_RUNS; i++) {
+            // -S force-stops the app first, so every launch is cold
+            String output = device.executeShellCommand("am start -W -S -n " + Journeys.PACKAGE + "/.MainActivity");
+            Matcher matcher = TOTAL_TIME.matcher(output);
+            assertTrue("unexpected am output: " + output, matcher.find());
+            times[i] = Long.parseLong(matcher.group(1));
+        }
+        Arrays.sort(times);
+        long median = times[BUDGET_RUNS / 2];
+        assertTrue("median cold start " + median + " ms over the " + budget + " ms budget, runs "
+                + Arrays.toString(times), median <= budget);
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        rule.measureRepeated(Journeys.PACKAGE, Collections.singletonList(new StartupTimingMetric()),
+                compilationMode, StartupMode.COLD, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
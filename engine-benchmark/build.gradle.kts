@@ -0,0 +1,23 @@
+// JMH benchmarks for the scheduling engine. Run with ./gradlew :engine-benchmark:jmh
+// and narrow the matrix with e.g. -Pjmh.includes=SchedulerBenchmark
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmhImplementation(project(":engine"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgs.addAll("-Xms4g", "-Xmx4g")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
@@ -0,0 +1,77 @@
+package com.idroid.scheduler.benchmark;
+
+import com.idroid.scheduler.engine.FcfsScheduler;
+import com.idroid.scheduler.engine.PriorityScheduler;
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.RoundRobinScheduler;
+import com.idroid.scheduler.engine.ScheduleResult;
+import com.idroid.scheduler.engine.Scheduler;
+import com.idroid.scheduler.engine.SjfScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full schedule per invocation. Throughput is reported as schedules per second; run with
+ * the gc profiler (enabled in the build) for allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    @Param({"FCFS", "SJF", "RR_1", "RR_4", "RR_16", "PRIORITY"})
+    public String algorithm;
+
+    @Param({"UNIFORM", "BURSTY", "PARETO", "ALL_AT_ZERO"})
+    public WorkloadShape shape;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private ProcessTable table;
+    private Scheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = shape.generate(size, 42);
+        table.arrivalOrder(); // sorted once up front, not on the first measured call
+        scheduler = newScheduler(algorithm);
+    }
+
+    @Benchmark
+    public ScheduleResult schedule() {
+        return scheduler.schedule(table);
+    }
+
+    static Scheduler newScheduler(String algorithm) {
+        if (algorithm.startsWith("RR_")) {
+            return new RoundRobinScheduler(Long.parseLong(algorithm.substring(3)));
+        }
+        switch (algorithm) {
+            case "FCFS":
+                return new FcfsScheduler();
+            case "SJF":
+                return new SjfScheduler();
+            case "PRIORITY":
+                return new PriorityScheduler();
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+    }
+}
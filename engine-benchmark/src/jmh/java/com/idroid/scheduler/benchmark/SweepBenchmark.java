@@ -0,0 +1,65 @@
+package com.idroid.scheduler.benchmark;
+
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.SweepRunner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full algorithm comparison plus an RR quantum sweep per invocation, at several pool sizes,
+ * to check that the sweep scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SweepBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"256"})
+    public int maxQuantum;
+
+    private ForkJoinPool pool;
+    private ProcessTable table;
+    private List<SweepRunner.Config> configs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        table = WorkloadShape.PARETO.generate(size, 42);
+        configs = SweepRunner.standardConfigs(maxQuantum);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<SweepRunner.Row> sweep() {
+        return new SweepRunner(pool).run(table, configs);
+    }
+}
@@ -0,0 +1,63 @@
+package com.idroid.scheduler.benchmark;
+
+import com.idroid.scheduler.engine.ProcessTable;
+import com.idroid.scheduler.engine.TraceFiles;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a whole binary workload trace per invocation. The file is written once per trial and
+ * stays in the page cache, so this measures the mapping and column copies rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceFilesBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ProcessTable table = WorkloadShape.UNIFORM.generate(size, 42);
+        file = File.createTempFile("workload", ".trace");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            TraceFiles.writeWorkload(table, out.getChannel());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!file.delete()) file.deleteOnExit();
+    }
+
+    @Benchmark
+    public ProcessTable readWorkload() throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return TraceFiles.readWorkload(in.getChannel());
+        }
+    }
+}
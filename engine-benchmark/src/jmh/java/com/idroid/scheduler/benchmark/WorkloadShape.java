@@ -0,0 +1,72 @@
+package com.idroid.scheduler.benchmark;
+
+import com.idroid.scheduler.engine.ProcessTable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic workload shapes used by the benchmarks. Every shape keeps the mean burst around
+ * {@link #MEAN_BURST} and the mean gap between arrivals around {@link #MEAN_GAP}, so only the
+ * distribution changes between shapes. Priorities are uniform in 0..9.
+ */
+public enum WorkloadShape {
+    // Uniform arrival gaps and uniform bursts
+    UNIFORM {
+        @Override
+        void fill(ProcessTable table, int size, SplittableRandom random) {
+            long time = 0;
+            for (int i = 0; i < size; i++) {
+                time += random.nextLong(2 * MEAN_GAP + 1);
+                table.add(null, time, 1 + random.nextLong(2 * MEAN_BURST - 1), random.nextInt(10));
+            }
+        }
+    },
+    // Groups of BURST_SIZE processes arriving together, separated by long quiet periods
+    BURSTY {
+        @Override
+        void fill(ProcessTable table, int size, SplittableRandom random) {
+            long time = 0;
+            for (int i = 0; i < size; i++) {
+                if (i % BURST_SIZE == 0) time += random.nextLong(2 * MEAN_GAP * BURST_SIZE + 1);
+                table.add(null, time, 1 + random.nextLong(2 * MEAN_BURST - 1), random.nextInt(10));
+            }
+        }
+    },
+    // Uniform arrival gaps, Pareto distributed bursts (alpha 1.5), capped to keep runs finite
+    PARETO {
+        @Override
+        void fill(ProcessTable table, int size, SplittableRandom random) {
+            double alpha = 1.5;
+            double scale = MEAN_BURST * (alpha - 1) / alpha;
+            long time = 0;
+            for (int i = 0; i < size; i++) {
+                time += random.nextLong(2 * MEAN_GAP + 1);
+                double burst = scale / Math.pow(1 - random.nextDouble(), 1 / alpha);
+                table.add(null, time, Math.max(1, Math.min((long) burst, MAX_PARETO_BURST)),
+                        random.nextInt(10));
+            }
+        }
+    },
+    // Everything is ready at t=0, the worst case for ready queue size
+    ALL_AT_ZERO {
+        @Override
+        void fill(ProcessTable table, int size, SplittableRandom random) {
+            for (int i = 0; i < size; i++) {
+                table.add(null, 0, 1 + random.nextLong(2 * MEAN_BURST - 1), random.nextInt(10));
+            }
+        }
+    };
+
+    static final long MEAN_BURST = 10;
+    static final long MEAN_GAP = 10;
+    static final int BURST_SIZE = 100;
+    static final long MAX_PARETO_BURST = 1_000_000;
+
+    abstract void fill(ProcessTable table, int size, SplittableRandom random);
+
+    public ProcessTable generate(int size, long seed) {
+        ProcessTable table = new ProcessTable(size);
+        fill(table, size, new SplittableRandom(seed));
+        return table;
+    }
+}
@@ -0,0 +1,174 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+
+/**
+ * Completely-Fair-Scheduler-style weighted fair sharing. The ready process with the smallest
+ * virtual runtime runs next, and virtual runtime grows with real run time scaled by the
+ * inverse of the process weight. Each dispatch gets its weighted share of targetLatency, but
+ * never less than minGranularity. A new process starts at the smallest virtual runtime in the
+ * queue, so it can't claim the CPU for everything it missed.
+ *
+ * <p>Weights follow the Linux nice table, with the priority as the nice value clamped to
+ * 0..19 and processes without a priority at nice 0. The queue is an {@link IndexedHeap}
+ * instead of a red-black tree; both give O(log n) per dispatch.
+ */
+public class CfsScheduler extends EventDrivenScheduler {
+    public static final long DEFAULT_TARGET_LATENCY = 24;
+    public static final long DEFAULT_MIN_GRANULARITY = 3;
+
+    private static final int NICE_0_WEIGHT = 1024;
+    private static final int VRUNTIME_SHIFT = 20; // log2(NICE_0_WEIGHT * NICE_0_WEIGHT)
+    private static final int[] WEIGHTS = {
+            1024, 820, 655, 526, 423, 335, 272, 215, 172, 137,
+            110, 87, 70, 56, 45, 36, 29, 23, 18, 15};
+
+    private final long targetLatency;
+    private final long minGranularity;
+
+    public CfsScheduler() {
+        this(DEFAULT_TARGET_LATENCY, DEFAULT_MIN_GRANULARITY);
+    }
+
+    public CfsScheduler(long targetLatency, long minGranularity) {
+        if (minGranularity <= 0) throw new IllegalArgumentException("granularity must be positive: " + minGranularity);
+        if (targetLatency < minGranularity) {
+            throw new IllegalArgumentException("target latency " + targetLatency
+                    + " is below the minimum granularity " + minGranularity);
+        }
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+    }
+
+    public long getTargetLatency() {
+        return targetLatency;
+    }
+
+    public long getMinGranularity() {
+        return minGranularity;
+    }
+
+    static int weightOf(ProcessTable table, int id) {
+        int priority = table.priority(id);
+        return priority < 0 ? NICE_0_WEIGHT : WEIGHTS[Math.min(priority, WEIGHTS.length - 1)];
+    }
+
+    /**
+     * ran * NICE_0_WEIGHT^2 / weight, rounded down, without the overflow of multiplying first
+     * once ran passes about 8.8e12. Saturates at Long.MAX_VALUE.
+     */
+    static long virtualTime(long ran, int weight) {
+        long whole = ran / weight;
+        if (whole > Long.MAX_VALUE >> VRUNTIME_SHIFT) return Long.MAX_VALUE;
+        return (whole << VRUNTIME_SHIFT) + ((ran % weight) << VRUNTIME_SHIFT) / weight;
+    }
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new FairQueue(table);
+    }
+
+    @Override
+    public String cacheKey() {
+        return "CFS " + targetLatency + "/" + minGranularity;
+    }
+
+    private final class FairQueue implements ReadyQueue {
+        private final ProcessTable table;
+        private final IndexedHeap heap;
+        // Virtual runtime in 1/1024ths of a time unit at nice 0, kept integral so order is exact
+        private long[] vruntime;
+        private boolean[] runnable;
+        private long minVruntime;
+        private long totalWeight; // of every runnable process, including the one running
+
+        FairQueue(ProcessTable table) {
+            this.table = table;
+            int capacity = Math.max(table.size(), 1);
+            vruntime = new long[capacity];
+            runnable = new boolean[capacity];
+            heap = new IndexedHeap(capacity, (a, b) -> {
+                int c = Long.compare(vruntime[a], vruntime[b]);
+                if (c != 0) return c;
+                c = Long.compare(table.arrival(a), table.arrival(b));
+                return c != 0 ? c : table.compareNames(a, b);
+            });
+        }
+
+        @Override
+        public void add(int id) {
+            ensureCapacity(id);
+            if (!runnable[id]) {
+                runnable[id] = true;
+                vruntime[id] = minVruntime;
+                totalWeight += weightOf(table, id);
+            }
+            heap.add(id);
+        }
+
+        private void ensureCapacity(int id) {
+            if (id >= vruntime.length) {
+                vruntime = Arrays.copyOf(vruntime, Math.max(id + 1, vruntime.length * 2));
+                runnable = Arrays.copyOf(runnable, vruntime.length);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        @Override
+        public long heapOperations() {
+            return heap.heapOperations();
+        }
+
+        @Override
+        public int poll() {
+            return heap.poll();
+        }
+
+        // Alone on the CPU there is nobody to share with until the next arrival
+        @Override
+        public long runLimit(int id, long untilArrival) {
+            if (heap.isEmpty()) return untilArrival;
+            long share = (long) ((double) targetLatency * weightOf(table, id) / totalWeight);
+            return Math.max(minGranularity, share);
+        }
+
+        @Override
+        public void onRun(int id, long ran, long remaining) {
+            int weight = weightOf(table, id);
+            long grown = vruntime[id] + virtualTime(ran, weight);
+            vruntime[id] = grown < 0 ? Long.MAX_VALUE : grown;
+            long smallest = heap.isEmpty() ? vruntime[id] : Math.min(vruntime[id], vruntime[heap.peek()]);
+            minVruntime = Math.max(minVruntime, smallest);
+            if (remaining == 0) {
+                runnable[id] = false;
+                totalWeight -= weight;
+            }
+        }
+
+        @Override
+        public int steal() {
+            return heap.steal();
+        }
+
+        // Carries the lead over the queue minimum rather than the absolute vruntime, which
+        // means nothing to another CPU's queue
+        @Override
+        public long migrateOut(int id) {
+            runnable[id] = false;
+            totalWeight -= weightOf(table, id);
+            return vruntime[id] - minVruntime;
+        }
+
+        @Override
+        public void migrateIn(int id, long state) {
+            ensureCapacity(id);
+            runnable[id] = true;
+            totalWeight += weightOf(table, id);
+            vruntime[id] = minVruntime + state;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Discrete-event simulation of a single CPU. The clock only moves to the next arrival
+ * or to the end of the running slice, never one unit at a time, so the cost of a run
+ * depends on the number of events rather than on the length of the time horizon.
+ *
+ * <p>Subclasses choose the ready queue order and how long a process may run before it is
+ * put back in the queue. A slice ends at the earlier of {@link #sliceLength} and the queue's
+ * {@link ReadyQueue#runLimit}, so a preemptive queue can stop the running process at an
+ * arrival or at the moment a waiting process overtakes it.
+ */
+abstract class EventDrivenScheduler implements StreamingScheduler {
+    static final int MONITOR_INTERVAL = 4096; // events between monitor polls, power of 2
+
+    protected abstract ReadyQueue newReadyQueue(ProcessTable table);
+
+    // How long a dispatched process runs before it is preempted; the whole burst by default
+    protected long sliceLength(long remaining) {
+        return remaining;
+    }
+
+    // How long to run when the dispatched process is the only one ready and the next arrival
+    // is untilArrival away. Schedulers that would re-dispatch it every slice anyway can run
+    // all of those slices in one step here.
+    protected long soloRunLength(long remaining, long untilArrival) {
+        return sliceLength(remaining);
+    }
+
+    protected boolean accepts(ProcessTable table, int id) {
+        return true;
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table, RunMonitor monitor) {
+        long begin = System.nanoTime();
+        int[] order = acceptedArrivalOrder(table);
+        long sorted = System.nanoTime();
+        int n = order.length;
+        long[] remaining = new long[table.size()];
+        for (int id : order) remaining[id] = table.burst(id);
+        ReadyQueue readyQueue = newReadyQueue(table);
+        ResultBuilder result = new ResultBuilder(table);
+        long time = 0;
+        int next = 0;
+        long events = 0;
+        long switches = 0;
+        int last = -1; // process dispatched last
+        int queued = 0, maxQueued = 0;
+
+        while (next < n || !readyQueue.isEmpty()) {
+            if ((++events & (MONITOR_INTERVAL - 1)) == 0) {
+                if (monitor.isCancelled()) throw new CancellationException();
+                monitor.onProgress(result.completedCount(), n);
+            }
+            while (next < n && table.arrival(order[next]) <= time) {
+                readyQueue.add(order[next++]);
+                queued++;
+            }
+            if (queued > maxQueued) maxQueued = queued;
+            if (readyQueue.isEmpty()) {
+                // CPU idle: jump straight to the next arrival
+                time = table.arrival(order[next]);
+                continue;
+            }
+
+            int id = readyQueue.poll();
+            queued--;
+            if (id != last) {
+                if (last >= 0) switches++;
+                last = id;
+            }
+            long untilArrival = next < n ? table.arrival(order[next]) - time : Long.MAX_VALUE;
+            long run = readyQueue.isEmpty() ? soloRunLength(remaining[id], untilArrival) : sliceLength(remaining[id]);
+            run = Math.min(run, readyQueue.runLimit(id, untilArrival));
+            result.addBlock(id, time, time + run);
+            time += run;
+            remaining[id] -= run;
+            readyQueue.onRun(id, run, remaining[id]);
+
+            if (remaining[id] > 0) {
+                // Processes that arrived during the slice queue up ahead of the preempted one
+                while (next < n && table.arrival(order[next]) <= time) {
+                    readyQueue.add(order[next++]);
+                    queued++;
+                }
+                readyQueue.add(id);
+                queued++;
+            } else {
+                result.complete(id, time);
+            }
+        }
+        monitor.onProgress(n, n);
+        long simulated = System.nanoTime();
+        ScheduleResult built = result.build();
+        RunMetrics metrics = monitor.metrics();
+        if (metrics != null) {
+            metrics.addPhase(RunMetrics.Phase.SORT, sorted - begin);
+            metrics.addPhase(RunMetrics.Phase.SIMULATE, simulated - sorted);
+            metrics.addPhase(RunMetrics.Phase.STATS, System.nanoTime() - simulated);
+            metrics.addRun(events, readyQueue.heapOperations(), switches, maxQueued);
+        }
+        return built;
+    }
+
+    /**
+     * The schedule of table computed from prefix, an earlier schedule by this scheduler of the
+     * table's first prefixSize rows, or null when this algorithm can't reuse it for these rows
+     * and the table has to be scheduled from scratch.
+     */
+    ScheduleResult extend(ScheduleResult prefix, int prefixSize, ProcessTable table, RunMonitor monitor) {
+        return null;
+    }
+
+    @Override
+    public void schedule(Iterator<ProcessModel> processes, ScheduleSink sink) {
+        new StreamingRun(this, processes, sink).run();
+    }
+
+    int[] acceptedArrivalOrder(ProcessTable table) {
+        int[] order = table.arrivalOrder();
+        int accepted = 0;
+        for (int id : order) {
+            if (accepts(table, id)) accepted++;
+        }
+        if (accepted == order.length) return order;
+        int[] filtered = new int[accepted];
+        int i = 0;
+        for (int id : order) {
+            if (accepts(table, id)) filtered[i++] = id;
+        }
+        return filtered;
+    }
+}
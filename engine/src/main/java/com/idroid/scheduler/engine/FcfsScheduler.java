@@ -0,0 +1,58 @@
+package com.idroid.scheduler.engine;
+
+import java.util.concurrent.CancellationException;
+
+public class FcfsScheduler extends EventDrivenScheduler {
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new IntRingBuffer(table.size());
+    }
+
+    // Rows added after the prefix that also arrive after all of its rows queue behind every one
+    // of them, so the prefix's schedule stands and the new rows run in arrival order after it.
+    // Recorded in the run metrics as a run over just the new rows, one event per dispatch.
+    @Override
+    ScheduleResult extend(ScheduleResult prefix, int prefixSize, ProcessTable table, RunMonitor monitor) {
+        long begin = System.nanoTime();
+        int[] order = table.arrivalOrder();
+        for (int i = prefixSize; i < order.length; i++) {
+            if (order[i] < prefixSize) return null;
+        }
+        long sorted = System.nanoTime();
+        int n = order.length;
+        ResultBuilder result = new ResultBuilder(prefix, prefixSize, table, prefix.getBlockCount() + n - prefixSize);
+        long time = prefix.getMakespan();
+        int arrived = prefixSize, maxQueued = 0;
+        for (int i = prefixSize; i < n; i++) {
+            if (((i - prefixSize) & (MONITOR_INTERVAL - 1)) == MONITOR_INTERVAL - 1) {
+                if (monitor.isCancelled()) throw new CancellationException();
+                monitor.onProgress(result.completedCount(), n);
+            }
+            int id = order[i];
+            time = Math.max(time, table.arrival(id));
+            while (arrived < n && table.arrival(order[arrived]) <= time) arrived++;
+            maxQueued = Math.max(maxQueued, arrived - i);
+            result.addBlock(id, time, time + table.burst(id));
+            time += table.burst(id);
+            result.complete(id, time);
+        }
+        monitor.onProgress(n, n);
+        long simulated = System.nanoTime();
+        ScheduleResult built = result.build();
+        RunMetrics metrics = monitor.metrics();
+        if (metrics != null) {
+            metrics.addPhase(RunMetrics.Phase.SORT, sorted - begin);
+            metrics.addPhase(RunMetrics.Phase.SIMULATE, simulated - sorted);
+            metrics.addPhase(RunMetrics.Phase.STATS, System.nanoTime() - simulated);
+            // Every new row follows a different process, the last of the prefix or the row before
+            metrics.addRun(n - prefixSize, 0, n - prefixSize, maxQueued);
+        }
+        return built;
+    }
+
+    @Override
+    public String cacheKey() {
+        return "FCFS";
+    }
+}
@@ -0,0 +1,160 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of non-negative int ids. Each id's slot is tracked so {@link #update(int)}
+ * and {@link #remove(int)} run in O(log n) instead of a linear search. Ids the comparator
+ * considers equal come out in the order they were added, and the arrays grow on demand.
+ */
+final class IndexedHeap implements ReadyQueue {
+
+    interface IdComparator {
+        int compare(int a, int b);
+    }
+
+    private final IdComparator comparator;
+    private int[] heap;
+    private int[] pos; // slot of each id in heap, -1 when absent
+    private long[] stamp; // insertion order of each queued id, the final tie-break
+    private long nextStamp;
+    private int size;
+    private long operations; // adds, removals and updates, for RunMetrics
+
+    IndexedHeap(int capacity, IdComparator comparator) {
+        this.comparator = comparator;
+        capacity = Math.max(capacity, 1);
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.stamp = new long[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return id < pos.length && pos[id] >= 0;
+    }
+
+    @Override
+    public void add(int id) {
+        if (id >= pos.length) growIds(id + 1);
+        if (pos[id] >= 0) throw new IllegalStateException("id already queued: " + id);
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = id;
+        pos[id] = size;
+        stamp[id] = nextStamp++;
+        operations++;
+        siftUp(size++);
+    }
+
+    int peek() {
+        if (size == 0) throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    @Override
+    public int poll() {
+        int top = peek();
+        removeAt(0);
+        return top;
+    }
+
+    // Takes the last leaf, an id from the back half of the order, in O(1)
+    @Override
+    public int steal() {
+        if (size == 0) return -1;
+        int id = heap[size - 1];
+        removeAt(size - 1);
+        return id;
+    }
+
+    void remove(int id) {
+        if (contains(id)) removeAt(pos[id]);
+    }
+
+    // Restores heap order after the key of a queued id has changed in either direction
+    void update(int id) {
+        if (!contains(id)) return;
+        operations++;
+        siftUp(pos[id]);
+        siftDown(pos[id]);
+    }
+
+    @Override
+    public long heapOperations() {
+        return operations;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private int compare(int a, int b) {
+        int c = comparator.compare(a, b);
+        return c != 0 ? c : Long.compare(stamp[a], stamp[b]);
+    }
+
+    private void growIds(int minCapacity) {
+        int capacity = Math.max(minCapacity, pos.length * 2);
+        int old = pos.length;
+        pos = Arrays.copyOf(pos, capacity);
+        Arrays.fill(pos, old, capacity, -1);
+        stamp = Arrays.copyOf(stamp, capacity);
+    }
+
+    private void removeAt(int i) {
+        operations++;
+        int id = heap[i];
+        pos[id] = -1;
+        int last = heap[--size];
+        if (i == size) return;
+        heap[i] = last;
+        pos[last] = i;
+        siftUp(i);
+        siftDown(pos[last]);
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (compare(id, p) >= 0) break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && compare(heap[right], c) < 0) {
+                child = right;
+                c = heap[child];
+            }
+            if (compare(id, c) <= 0) break;
+            heap[i] = c;
+            pos[c] = i;
+            i = child;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
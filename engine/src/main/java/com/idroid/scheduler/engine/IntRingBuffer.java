@@ -0,0 +1,56 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * FIFO ready queue over an int array. The buffer only grows when more ids are queued at once
+ * than ever before, so a run allocates nothing per dispatch once it reaches steady state.
+ */
+final class IntRingBuffer implements ReadyQueue {
+    private int[] ids;
+    private int head, size;
+
+    IntRingBuffer(int capacity) {
+        ids = new int[Math.max(capacity, 1)];
+    }
+
+    @Override
+    public void add(int id) {
+        if (size == ids.length) grow();
+        int tail = head + size;
+        if (tail >= ids.length) tail -= ids.length;
+        ids[tail] = id;
+        size++;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) throw new IllegalStateException("ring buffer empty");
+        int id = ids[head];
+        if (++head == ids.length) head = 0;
+        size--;
+        return id;
+    }
+
+    // Takes the tail, the id that would run last
+    @Override
+    public int steal() {
+        if (size == 0) return -1;
+        size--;
+        int tail = head + size;
+        if (tail >= ids.length) tail -= ids.length;
+        return ids[tail];
+    }
+
+    private void grow() {
+        int[] grown = new int[ids.length * 2];
+        int firstPart = ids.length - head;
+        System.arraycopy(ids, head, grown, 0, firstPart);
+        System.arraycopy(ids, 0, grown, firstPart, head);
+        ids = grown;
+        head = 0;
+    }
+}
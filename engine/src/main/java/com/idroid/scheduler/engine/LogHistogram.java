@@ -0,0 +1,58 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Fixed-size log-linear histogram of non-negative longs, in the style of HdrHistogram.
+ * Values below 128 are counted exactly; larger values land in one of 64 buckets per power of
+ * two, so a reported percentile is within about 1.6% of the true value. Two histograms merge
+ * by adding counts, which makes per-thread or per-chunk collection cheap to combine.
+ */
+final class LogHistogram {
+    private static final int PRECISION_BITS = 7;
+    private static final int EXACT = 1 << PRECISION_BITS;    // 128 exact buckets
+    private static final int HALF = EXACT >>> 1;             // buckets per power of two above that
+    private static final int BUCKETS = EXACT + (63 - PRECISION_BITS) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    // Negative values are counted as 0
+    void record(long value) {
+        counts[indexOf(Math.max(value, 0))]++;
+        total++;
+    }
+
+    void merge(LogHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+    }
+
+    long count() {
+        return total;
+    }
+
+    // Smallest bucket value with at least fraction of the recorded values at or below it
+    long valueAt(double fraction) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return midpointOf(i);
+        }
+        return midpointOf(BUCKETS - 1);
+    }
+
+    private static int indexOf(long value) {
+        if (value < EXACT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (PRECISION_BITS - 1);
+        int mantissa = (int) (value >>> shift); // in [HALF, EXACT)
+        return EXACT + (shift - 1) * HALF + (mantissa - HALF);
+    }
+
+    private static long midpointOf(int index) {
+        if (index < EXACT) return index;
+        int shift = (index - EXACT) / HALF + 1;
+        long mantissa = (index - EXACT) % HALF + HALF;
+        return (mantissa << shift) + (1L << (shift - 1));
+    }
+}
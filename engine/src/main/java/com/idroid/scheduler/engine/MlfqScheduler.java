@@ -0,0 +1,136 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+
+/**
+ * Multi-Level Feedback Queue. Processes enter the top level, whose quantum is baseQuantum, and
+ * drop one level each time they use up a whole quantum; level k has a quantum of
+ * {@code baseQuantum << k} and the bottom level keeps what it gets. A level only runs when all
+ * levels above it are empty, and an arrival preempts a process below the top level. A process
+ * preempted that way keeps the unused part of its quantum. Each level is a FIFO ring buffer,
+ * so every queue operation is O(1).
+ */
+public class MlfqScheduler extends EventDrivenScheduler {
+    private final int levels;
+    private final long baseQuantum;
+
+    public MlfqScheduler(int levels, long baseQuantum) {
+        if (levels <= 0 || levels > 32) throw new IllegalArgumentException("levels must be 1 to 32: " + levels);
+        if (baseQuantum <= 0) throw new IllegalArgumentException("quantum must be positive: " + baseQuantum);
+        if (levels > 1 && baseQuantum > Long.MAX_VALUE >> (levels - 1)) {
+            throw new IllegalArgumentException("bottom quantum overflows: " + levels + " levels of " + baseQuantum);
+        }
+        this.levels = levels;
+        this.baseQuantum = baseQuantum;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public long getBaseQuantum() {
+        return baseQuantum;
+    }
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new LevelQueue(table.size());
+    }
+
+    @Override
+    public String cacheKey() {
+        return "MLFQ " + levels + "x" + baseQuantum;
+    }
+
+    private final class LevelQueue implements ReadyQueue {
+        private final IntRingBuffer[] queues = new IntRingBuffer[levels];
+        private int[] level;
+        private long[] quantumLeft; // 0 until the process is first queued
+        private int size;
+
+        LevelQueue(int capacity) {
+            for (int i = 0; i < levels; i++) queues[i] = new IntRingBuffer(i == 0 ? capacity : 16);
+            level = new int[Math.max(capacity, 1)];
+            quantumLeft = new long[level.length];
+        }
+
+        @Override
+        public void add(int id) {
+            ensureCapacity(id);
+            if (quantumLeft[id] == 0) {
+                level[id] = 0;
+                quantumLeft[id] = baseQuantum;
+            }
+            queues[level[id]].add(id);
+            size++;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public int poll() {
+            for (IntRingBuffer queue : queues) {
+                if (!queue.isEmpty()) {
+                    size--;
+                    return queue.poll();
+                }
+            }
+            throw new IllegalStateException("ready queue empty");
+        }
+
+        private void ensureCapacity(int id) {
+            if (id >= level.length) {
+                level = Arrays.copyOf(level, Math.max(id + 1, level.length * 2));
+                quantumLeft = Arrays.copyOf(quantumLeft, level.length);
+            }
+        }
+
+        @Override
+        public long runLimit(int id, long untilArrival) {
+            return level[id] == 0 ? quantumLeft[id] : Math.min(quantumLeft[id], untilArrival);
+        }
+
+        @Override
+        public void onRun(int id, long ran, long remaining) {
+            if (remaining == 0) {
+                quantumLeft[id] = 0;
+                return;
+            }
+            quantumLeft[id] -= ran;
+            if (quantumLeft[id] == 0) {
+                level[id] = Math.min(level[id] + 1, levels - 1);
+                quantumLeft[id] = baseQuantum << level[id];
+            }
+        }
+
+        // Takes the tail of the lowest non-empty level
+        @Override
+        public int steal() {
+            for (int i = levels - 1; i >= 0; i--) {
+                int id = queues[i].steal();
+                if (id >= 0) {
+                    size--;
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        // A migrated process keeps its level and starts on a fresh quantum there
+        @Override
+        public long migrateOut(int id) {
+            quantumLeft[id] = 0;
+            return level[id];
+        }
+
+        @Override
+        public void migrateIn(int id, long state) {
+            ensureCapacity(id);
+            level[id] = (int) state;
+            quantumLeft[id] = baseQuantum << level[id];
+        }
+    }
+}
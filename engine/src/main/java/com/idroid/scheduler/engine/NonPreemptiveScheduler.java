@@ -0,0 +1,20 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Runs the ready process with the smallest key to completion. Ties go to the earlier
+ * arrival, then the smaller name, then input order, so the schedule is deterministic.
+ */
+abstract class NonPreemptiveScheduler extends EventDrivenScheduler {
+
+    protected abstract long keyOf(ProcessTable table, int id);
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new IndexedHeap(table.size(), (a, b) -> {
+            int c = Long.compare(keyOf(table, a), keyOf(table, b));
+            if (c != 0) return c;
+            c = Long.compare(table.arrival(a), table.arrival(b));
+            return c != 0 ? c : table.compareNames(a, b);
+        });
+    }
+}
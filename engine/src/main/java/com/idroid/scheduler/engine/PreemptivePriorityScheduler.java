@@ -0,0 +1,55 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Preemptive priority scheduling, lower number = higher priority. Processes without a priority
+ * (-1) are skipped. With a positive aging interval a waiting process gains one priority level
+ * per interval it has waited, so low priority work is not starved.
+ *
+ * <p>Waiting time is arrival to now minus time already run, which makes the key
+ * {@code priority * interval + arrival + ran} fixed while a process waits and the order of the
+ * queue independent of the clock. Aging then needs no periodic pass over the queue; the engine
+ * only stops the running process at the computed moment it is overtaken.
+ */
+public class PreemptivePriorityScheduler extends PreemptiveScheduler {
+    private final long agingInterval;
+
+    public PreemptivePriorityScheduler() {
+        this(0);
+    }
+
+    public PreemptivePriorityScheduler(long agingInterval) {
+        if (agingInterval < 0) {
+            throw new IllegalArgumentException("aging interval must not be negative: " + agingInterval);
+        }
+        this.agingInterval = agingInterval;
+    }
+
+    public long getAgingInterval() {
+        return agingInterval;
+    }
+
+    @Override
+    protected long keyOf(ProcessTable table, int id, long ran) {
+        if (agingInterval == 0) return table.priority(id);
+        return table.priority(id) * agingInterval + table.arrival(id) + ran;
+    }
+
+    // The running process stops aging and the waiting one keeps catching up at one key unit
+    // per time unit, so it is strictly ahead one unit after the keys meet. Aging moves nobody
+    // by a whole level in less than an interval, so a process runs at least that long; two
+    // processes aging past each other then alternate in intervals instead of every time unit.
+    @Override
+    protected long overtakeAfter(long runningKey, long waitingKey) {
+        return agingInterval == 0 ? Long.MAX_VALUE : Math.max(agingInterval, waitingKey - runningKey + 1);
+    }
+
+    @Override
+    protected boolean accepts(ProcessTable table, int id) {
+        return table.priority(id) >= 0;
+    }
+
+    @Override
+    public String cacheKey() {
+        return "Prio+aging " + agingInterval;
+    }
+}
@@ -0,0 +1,101 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+
+/**
+ * Always runs the ready process with the smallest key, where the key may change with the time
+ * a process has already run. The running process is reconsidered at every arrival and at the
+ * moment {@link #overtakeAfter} says the best waiting process would pass it, so a run costs
+ * O(log n) per event. Ties go to the earlier arrival, then the smaller name.
+ */
+abstract class PreemptiveScheduler extends EventDrivenScheduler {
+
+    protected abstract long keyOf(ProcessTable table, int id, long ran);
+
+    // How long a process can keep running from runningKey before a waiting process with
+    // waitingKey should replace it. Keys of waiting processes never change, so by default
+    // only an arrival can preempt.
+    protected long overtakeAfter(long runningKey, long waitingKey) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new KeyedQueue(table);
+    }
+
+    private final class KeyedQueue implements ReadyQueue {
+        private final ProcessTable table;
+        private final IndexedHeap heap;
+        private long[] ran;
+
+        KeyedQueue(ProcessTable table) {
+            this.table = table;
+            this.ran = new long[Math.max(table.size(), 1)];
+            this.heap = new IndexedHeap(table.size(), (a, b) -> {
+                int c = Long.compare(key(a), key(b));
+                if (c != 0) return c;
+                c = Long.compare(table.arrival(a), table.arrival(b));
+                return c != 0 ? c : table.compareNames(a, b);
+            });
+        }
+
+        private long key(int id) {
+            return keyOf(table, id, ran[id]);
+        }
+
+        @Override
+        public void add(int id) {
+            ensureCapacity(id);
+            heap.add(id);
+        }
+
+        private void ensureCapacity(int id) {
+            if (id >= ran.length) ran = Arrays.copyOf(ran, Math.max(id + 1, ran.length * 2));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        @Override
+        public long heapOperations() {
+            return heap.heapOperations();
+        }
+
+        @Override
+        public int poll() {
+            return heap.poll();
+        }
+
+        @Override
+        public long runLimit(int id, long untilArrival) {
+            if (heap.isEmpty()) return untilArrival;
+            return Math.min(untilArrival, overtakeAfter(key(id), key(heap.peek())));
+        }
+
+        @Override
+        public void onRun(int id, long ran, long remaining) {
+            this.ran[id] = remaining == 0 ? 0 : this.ran[id] + ran;
+        }
+
+        @Override
+        public int steal() {
+            return heap.steal();
+        }
+
+        @Override
+        public long migrateOut(int id) {
+            long state = ran[id];
+            ran[id] = 0;
+            return state;
+        }
+
+        @Override
+        public void migrateIn(int id, long state) {
+            ensureCapacity(id);
+            ran[id] = state;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.idroid.scheduler.engine;
+
+// Non-preemptive priority scheduling, lower number = higher priority.
+// Processes without a priority (-1) are skipped.
+public class PriorityScheduler extends NonPreemptiveScheduler {
+
+    @Override
+    protected long keyOf(ProcessTable table, int id) {
+        return table.priority(id);
+    }
+
+    @Override
+    protected boolean accepts(ProcessTable table, int id) {
+        return table.priority(id) >= 0;
+    }
+
+    @Override
+    public String cacheKey() {
+        return "Priority";
+    }
+}
@@ -0,0 +1,20 @@
+package com.idroid.scheduler.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProcessModel {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Unique per instance, so lists can keep track of a row across edits
+    public final long id = NEXT_ID.getAndIncrement();
+    public String name;
+    public long arrival, burst;
+    public int priority;
+
+    public ProcessModel(String name, long arrival, long burst, int priority) {
+        this.name = name;
+        this.arrival = arrival;
+        this.burst = burst;
+        this.priority = priority;
+    }
+}
\ No newline at end of file
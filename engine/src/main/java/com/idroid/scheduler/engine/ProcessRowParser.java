@@ -0,0 +1,77 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Turns one row of recognised text, such as a line of a process table read by OCR, into a
+ * process. A row is an optional name followed by arrival, burst and optionally priority, split on
+ * whitespace, commas, semicolons or table rules. Rows that do not read as a process (headers,
+ * captions) give null, so callers can feed every line of a page through.
+ */
+public final class ProcessRowParser {
+    // More digits than this is OCR noise rather than a time
+    private static final int MAX_DIGITS = 15;
+
+    private ProcessRowParser() {
+    }
+
+    /**
+     * Returns the process on this row, or null. The name is null when the row has none. A row of
+     * four numbers and no name is read as a process number column followed by the three fields,
+     * and a "-" in the priority column means no priority.
+     */
+    public static ProcessModel parse(CharSequence row) {
+        String name = null;
+        long[] numbers = new long[4];
+        int count = 0;
+        for (String token : row.toString().split("[\\s,;|]+")) {
+            if (token.isEmpty()) continue;
+            long value = parseNumber(token);
+            if (value >= 0) {
+                if (count == numbers.length) break;
+                numbers[count++] = value;
+            } else if (token.equals("-") && count == 2) {
+                numbers[count++] = -1;
+            } else if (count == 0 && name == null) {
+                name = token.endsWith(":") ? token.substring(0, token.length() - 1) : token;
+            } else if (count >= 2) {
+                break; // trailing notes after the fields
+            } else {
+                return null;
+            }
+        }
+        if (count == 4 && name == null) {
+            name = "P" + numbers[0];
+            System.arraycopy(numbers, 1, numbers, 0, 3);
+            count = 3;
+        }
+        if (count < 2 || count > 3 || numbers[0] < 0 || numbers[1] <= 0) return null;
+        int priority = count == 3 ? (int) Math.min(numbers[2], Integer.MAX_VALUE) : -1;
+        return new ProcessModel(name, numbers[0], numbers[1], priority);
+    }
+
+    // The value of a number token, or -1. O, o, I and l read as 0 and 1 in a token that also has a
+    // real digit, since recognisers often confuse them; alone they are names. Trailing punctuation
+    // is dropped.
+    static long parseNumber(String token) {
+        int end = token.length();
+        while (end > 0 && (token.charAt(end - 1) == '.' || token.charAt(end - 1) == ':')) end--;
+        if (end == 0 || end > MAX_DIGITS) return -1;
+        boolean digit = false;
+        long value = 0;
+        for (int i = 0; i < end; i++) {
+            char c = token.charAt(i);
+            int d;
+            if (c >= '0' && c <= '9') {
+                d = c - '0';
+                digit = true;
+            } else if (c == 'O' || c == 'o') {
+                d = 0;
+            } else if (c == 'I' || c == 'l') {
+                d = 1;
+            } else {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return digit ? value : -1;
+    }
+}
@@ -0,0 +1,289 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-oriented process store. Every process is an int id into parallel primitive arrays,
+ * so schedulers never box values or hash names. Names are optional; a row without one is
+ * shown as {@code "P" + (id + 1)}, matching the default names given in the add form.
+ *
+ * <p>Not thread-safe while rows are being added. Once filled it can be shared read-only
+ * between concurrent runs, and it must stay unchanged while any run or result may still read
+ * it; to edit a table that was handed out, add to a {@link #copy} instead. The arrival order
+ * and hashes it computes on first use are published through volatile fields, so concurrent
+ * readers see either nothing yet or the finished values.
+ */
+public final class ProcessTable {
+    private static final long HASH_SEED = 0x2545F4914F6CDD1DL;
+    private static final long CHECK_SEED = 0x632BE59BD9B4E019L;
+    private static final long NO_NAME = -1L << 32;
+    private static final long[][] NO_HASHES = new long[2][];
+
+    private String[] names;
+    private long[] arrival;
+    private long[] burst;
+    private int[] priority;
+    private int size;
+    private volatile int[] arrivalOrder; // cached, cleared on add
+    // {latest, previous}: {rows hashed, hash, check hash} of the longest prefix hashed and of the
+    // one before it, so both the old and the new length hash at once after rows were appended.
+    // Replaced as a whole, never modified.
+    private volatile long[][] hashStates = NO_HASHES;
+
+    public ProcessTable() {
+        this(16);
+    }
+
+    public ProcessTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        names = new String[capacity];
+        arrival = new long[capacity];
+        burst = new long[capacity];
+        priority = new int[capacity];
+    }
+
+    // Takes ownership of the column arrays; rows at and after size are ignored
+    ProcessTable(String[] names, long[] arrival, long[] burst, int[] priority, int size) {
+        this.names = names;
+        this.arrival = arrival;
+        this.burst = burst;
+        this.priority = priority;
+        this.size = size;
+    }
+
+    /**
+     * A copy with room for extraRows more rows, sharing no arrays with this table. Content
+     * hashes already computed carry over, so hashing the copy after appending only reads the
+     * new rows.
+     */
+    public ProcessTable copy(int extraRows) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) size + Math.max(extraRows, 0));
+        ProcessTable copy = new ProcessTable(Arrays.copyOf(names, Math.max(capacity, 1)),
+                Arrays.copyOf(arrival, Math.max(capacity, 1)), Arrays.copyOf(burst, Math.max(capacity, 1)),
+                Arrays.copyOf(priority, Math.max(capacity, 1)), size);
+        copy.hashStates = hashStates;
+        return copy;
+    }
+
+    public static ProcessTable of(List<ProcessModel> processes) {
+        ProcessTable table = new ProcessTable(processes.size());
+        for (ProcessModel p : processes) table.add(p.name, p.arrival, p.burst, p.priority);
+        return table;
+    }
+
+    // Returns the id of the new row
+    public int add(String name, long arrival, long burst, int priority) {
+        if (size == this.arrival.length) grow();
+        names[size] = name;
+        this.arrival[size] = arrival;
+        this.burst[size] = burst;
+        this.priority[size] = priority;
+        arrivalOrder = null;
+        return size++;
+    }
+
+    // Overwrites a row in place; lets the streaming scheduler recycle ids of finished processes
+    void set(int id, String name, long arrival, long burst, int priority) {
+        names[id] = name;
+        this.arrival[id] = arrival;
+        this.burst[id] = burst;
+        this.priority[id] = priority;
+        arrivalOrder = null;
+        hashStates = NO_HASHES;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String name(int id) {
+        String name = names[id];
+        return name != null ? name : "P" + (id + 1);
+    }
+
+    // Null for rows shown under their default name
+    String rawName(int id) {
+        return names[id];
+    }
+
+    public long arrival(int id) {
+        return arrival[id];
+    }
+
+    public long burst(int id) {
+        return burst[id];
+    }
+
+    public int priority(int id) {
+        return priority[id];
+    }
+
+    /**
+     * Ids sorted by arrival, ties kept in id order. Computed once and cached; callers must
+     * not modify the returned array.
+     */
+    public int[] arrivalOrder() {
+        int[] order = arrivalOrder;
+        if (order == null) {
+            order = new int[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            if (!isSortedByArrival()) mergeSort(order, new int[size], 0, size);
+            arrivalOrder = order;
+        }
+        return order;
+    }
+
+    public long contentHash() {
+        return contentHash(size);
+    }
+
+    /**
+     * 64-bit hash of the names, arrivals, bursts and priorities of the first rows rows, in order,
+     * so two tables with the same rows hash alike and a table's hash over a shorter length tells
+     * whether another table is its prefix. The hashes of the two longest prefixes asked for are
+     * kept, so hashing again after rows were added only reads the new rows. Equal hashes do not
+     * prove equal rows; see {@link #sameRows}.
+     */
+    public long contentHash(int rows) {
+        return hashState(rows)[1];
+    }
+
+    // A second hash of the same rows, independent of contentHash, hashed in the same pass
+    long checkHash(int rows) {
+        return hashState(rows)[2];
+    }
+
+    // True if the first rows rows of both tables are equal, names included
+    boolean sameRows(ProcessTable other, int rows) {
+        if (other == this) return true;
+        if (rows > size || rows > other.size) return false;
+        for (int id = 0; id < rows; id++) {
+            if (arrival[id] != other.arrival[id] || burst[id] != other.burst[id]
+                    || priority[id] != other.priority[id]) {
+                return false;
+            }
+        }
+        for (int id = 0; id < rows; id++) {
+            String name = names[id], otherName = other.names[id];
+            if (name == null ? otherName != null : !name.equals(otherName)) return false;
+        }
+        return true;
+    }
+
+    private long[] hashState(int rows) {
+        if (rows < 0 || rows > size) throw new IndexOutOfBoundsException("rows " + rows + " of " + size);
+        long[][] states = hashStates;
+        long[] latest = states[0], previous = states[1];
+        if (latest != null && latest[0] == rows) return latest;
+        if (previous != null && previous[0] == rows) return previous;
+        long[] start = latest != null && latest[0] < rows ? latest
+                : previous != null && previous[0] < rows ? previous : null;
+        int from = start == null ? 0 : (int) start[0];
+        long hash = start == null ? HASH_SEED : start[1];
+        long check = start == null ? CHECK_SEED : start[2];
+        for (int id = from; id < rows; id++) {
+            String name = names[id];
+            if (name == null) {
+                hash = mixHash(hash, NO_NAME);
+                check = mixCheck(check, NO_NAME);
+            } else {
+                // Every character goes in, four to a word, after the length
+                int length = name.length();
+                hash = mixHash(hash, length);
+                check = mixCheck(check, length);
+                for (int i = 0; i < length; i += 4) {
+                    long word = 0;
+                    for (int j = i; j < Math.min(i + 4, length); j++) word = word << 16 | name.charAt(j);
+                    hash = mixHash(hash, word);
+                    check = mixCheck(check, word);
+                }
+            }
+            hash = mixHash(hash, arrival[id]);
+            hash = mixHash(hash, burst[id]);
+            hash = mixHash(hash, priority[id]);
+            check = mixCheck(check, arrival[id]);
+            check = mixCheck(check, burst[id]);
+            check = mixCheck(check, priority[id]);
+        }
+        long[] state = {rows, hash, check};
+        // Two threads hashing at once may each drop the other's state; that only costs a rehash
+        hashStates = latest == null || latest[0] < rows ? new long[][]{state, latest} : new long[][]{latest, state};
+        return state;
+    }
+
+    // Same order as comparing the display names as strings, without building them for unnamed rows
+    int compareNames(int a, int b) {
+        if (names[a] == null && names[b] == null) return compareDecimalStrings(a + 1L, b + 1L);
+        return name(a).compareTo(name(b));
+    }
+
+    private boolean isSortedByArrival() {
+        for (int i = 1; i < size; i++) {
+            if (arrival[i] < arrival[i - 1]) return false;
+        }
+        return true;
+    }
+
+    // Stable merge sort of ids by arrival
+    private void mergeSort(int[] ids, int[] tmp, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(ids, tmp, from, mid);
+        mergeSort(ids, tmp, mid, to);
+        if (arrival[ids[mid - 1]] <= arrival[ids[mid]]) return;
+        System.arraycopy(ids, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            ids[k++] = arrival[tmp[j]] < arrival[tmp[i]] ? tmp[j++] : tmp[i++];
+        }
+        while (i < mid) ids[k++] = tmp[i++];
+        while (j < to) ids[k++] = tmp[j++];
+    }
+
+    private static long mixHash(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    // A different multiplier and rotation from mixHash, so the two hashes collide independently
+    private static long mixCheck(long hash, long value) {
+        hash = Long.rotateLeft(hash + value, 23) * 0xC2B2AE3D27D4EB4FL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private void grow() {
+        int capacity = arrival.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        arrival = Arrays.copyOf(arrival, capacity);
+        burst = Arrays.copyOf(burst, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+    }
+
+    // Lexicographic comparison of the decimal forms of two positive numbers
+    private static int compareDecimalStrings(long x, long y) {
+        int dx = digits(x), dy = digits(y);
+        if (dx == dy) return Long.compare(x, y);
+        if (dx < dy) {
+            int c = Long.compare(x, y / pow10(dy - dx));
+            return c != 0 ? c : -1;
+        }
+        int c = Long.compare(x / pow10(dx - dy), y);
+        return c != 0 ? c : 1;
+    }
+
+    private static int digits(long x) {
+        int d = 1;
+        while (x >= 10) {
+            x /= 10;
+            d++;
+        }
+        return d;
+    }
+
+    private static long pow10(int n) {
+        long p = 1;
+        while (n-- > 0) p *= 10;
+        return p;
+    }
+}
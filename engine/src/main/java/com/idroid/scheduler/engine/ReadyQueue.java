@@ -0,0 +1,45 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Ready set of an {@link EventDrivenScheduler}, holding {@link ProcessTable} ids.
+ * The id order decides which process the CPU runs next. Queues of preemptive schedulers
+ * also keep per-run state such as time used or virtual runtime, through the two hooks.
+ */
+interface ReadyQueue {
+    void add(int id);
+
+    boolean isEmpty();
+
+    int poll();
+
+    // Longest the process just polled may run before the queue wants to choose again,
+    // given the time until the next arrival; unbounded by default
+    default long runLimit(int id, long untilArrival) {
+        return Long.MAX_VALUE;
+    }
+
+    // Called after a polled process ran, before it is queued again; remaining is 0 once it
+    // completed, after which its id may be reused for another process
+    default void onRun(int id, long ran, long remaining) {
+    }
+
+    // Work stealing: removes a queued id another CPU may take over, or returns -1. Queues give
+    // up one that would run late, so their own CPU keeps what it was about to run.
+    default int steal() {
+        return -1;
+    }
+
+    // Called right after steal(): drops the state kept for id, which may then be reused, and
+    // returns it in a form migrateIn of the receiving queue restores
+    default long migrateOut(int id) {
+        return 0;
+    }
+
+    default void migrateIn(int id, long state) {
+    }
+
+    // Heap operations done so far, for RunMetrics; queues without a heap do none
+    default long heapOperations() {
+        return 0;
+    }
+}
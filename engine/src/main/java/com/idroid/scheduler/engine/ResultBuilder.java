@@ -0,0 +1,106 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+
+// Collects blocks and completions into primitive arrays while a scheduler runs
+final class ResultBuilder {
+    private final ProcessTable table;
+    private int[] blockProcess;
+    private long[] blockStart;
+    private long[] blockEnd;
+    private int blockCount;
+    private final long[] startTimes;
+    private final long[] finishTimes;
+    private int completedCount;
+    private final ScheduleStats stats;
+    private final boolean ownStats; // false when stats belong to a whole machine
+    private long busyTime;
+
+    ResultBuilder(ProcessTable table) {
+        this(table, newTimes(table.size()), newTimes(table.size()), table.size(), new ScheduleStats(), true);
+    }
+
+    /**
+     * One CPU of a multi-CPU run. The per-process times and machineStats are shared by all of its
+     * CPUs; the lane's own statistics are only built if asked for, see {@link ScheduleResult#getStats}.
+     */
+    ResultBuilder(ProcessTable table, long[] startTimes, long[] finishTimes, int blockCapacity,
+                  ScheduleStats machineStats) {
+        this(table, startTimes, finishTimes, blockCapacity, machineStats, false);
+    }
+
+    private ResultBuilder(ProcessTable table, long[] startTimes, long[] finishTimes, int blockCapacity,
+                          ScheduleStats stats, boolean ownStats) {
+        this.table = table;
+        this.stats = stats;
+        this.ownStats = ownStats;
+        int capacity = Math.max(blockCapacity, 16);
+        blockProcess = new int[capacity];
+        blockStart = new long[capacity];
+        blockEnd = new long[capacity];
+        this.startTimes = startTimes;
+        this.finishTimes = finishTimes;
+    }
+
+    // Continues a finished schedule of the first prefixSize rows of table
+    ResultBuilder(ScheduleResult prefix, int prefixSize, ProcessTable table, int blockCapacity) {
+        this(table, newTimes(table.size()), newTimes(table.size()), Math.max(blockCapacity, prefix.getBlockCount()),
+                new ScheduleStats(), true);
+        blockCount = prefix.getBlockCount();
+        for (int i = 0; i < blockCount; i++) {
+            blockProcess[i] = prefix.getBlockProcess(i);
+            blockStart[i] = prefix.getBlockStart(i);
+            blockEnd[i] = prefix.getBlockEnd(i);
+        }
+        for (int id = 0; id < prefixSize; id++) {
+            startTimes[id] = prefix.getStartTime(id);
+            finishTimes[id] = prefix.getFinishTime(id);
+        }
+        completedCount = prefix.getCompletedCount();
+        busyTime = prefix.busyTime();
+        stats.merge(prefix.getStats());
+    }
+
+    // Filled with -1, meaning not started or not finished
+    static long[] newTimes(int n) {
+        long[] times = new long[n];
+        Arrays.fill(times, -1);
+        return times;
+    }
+
+    // Back-to-back slices of the same process are merged into one block
+    void addBlock(int id, long start, long end) {
+        stats.onBlock(id, null, start, end);
+        busyTime += end - start;
+        if (blockCount > 0 && blockProcess[blockCount - 1] == id && blockEnd[blockCount - 1] == start) {
+            blockEnd[blockCount - 1] = end;
+            return;
+        }
+        if (blockCount == blockProcess.length) {
+            int capacity = blockCount * 2;
+            blockProcess = Arrays.copyOf(blockProcess, capacity);
+            blockStart = Arrays.copyOf(blockStart, capacity);
+            blockEnd = Arrays.copyOf(blockEnd, capacity);
+        }
+        blockProcess[blockCount] = id;
+        blockStart[blockCount] = start;
+        blockEnd[blockCount] = end;
+        blockCount++;
+        if (startTimes[id] < 0) startTimes[id] = start;
+    }
+
+    void complete(int id, long time) {
+        finishTimes[id] = time;
+        completedCount++;
+        stats.onCompletion(id, null, table.arrival(id), table.burst(id), startTimes[id], time);
+    }
+
+    int completedCount() {
+        return completedCount;
+    }
+
+    ScheduleResult build() {
+        return new ScheduleResult(table, blockCount, blockProcess, blockStart, blockEnd,
+                startTimes, finishTimes, completedCount, ownStats ? stats : null, busyTime);
+    }
+}
@@ -0,0 +1,284 @@
+package com.idroid.scheduler.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps finished schedules so that scheduling the same rows with the same algorithm again
+ * returns at once. Entries are keyed by the table's content hashes and the scheduler's
+ * {@link Scheduler#cacheKey}, so an equal table built anew, e.g. by another screen, still hits.
+ * A memory hit is only taken after comparing the rows with the entry's table; a disk hit has
+ * no table to compare with and relies on two independent 64-bit hashes agreeing.
+ * Memory is bounded by an estimate of the bytes each entry holds, least recently used first out.
+ * Entries keep only the schedule's columns; each hit gets its own statistics, rebuilt from the
+ * blocks when asked for, as they are much larger than a small schedule and callers may merge
+ * into them.
+ *
+ * <p>With a directory every entry is also written there as a block trace and read back when
+ * memory no longer has it; that tier is bounded by file size and trimmed oldest first. Disk
+ * errors only lose the entry. A miss on a table that extends the last one scheduled with the
+ * same algorithm, as after adding rows, lets an algorithm that can continue the old schedule
+ * compute just the new rows; FCFS can when the new rows arrive after all the old ones.
+ *
+ * <p>Thread-safe. Schedules are computed outside the lock, so two threads missing on the same
+ * key both compute it. Cached results keep referring to the table they were computed for, which
+ * therefore must not change afterwards; see {@link ProcessTable#copy}.
+ */
+public final class ResultCache {
+    private static final int DISK_MAGIC = 0x44484353; // "SCHD" read as little-endian
+    private static final int DISK_HEADER_BYTES = 40;
+    private static final String DISK_SUFFIX = ".schedule";
+
+    private final long maxBytes;
+    private final File directory;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> latest = new HashMap<>(); // last single-CPU entry per scheduler key
+    private final Object diskLock = new Object();
+    private long bytes;
+
+    public ResultCache(long maxBytes) {
+        this(maxBytes, null, 0);
+    }
+
+    // directory is created if missing; null keeps the cache in memory only
+    public ResultCache(long maxBytes, File directory, long maxDiskBytes) {
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("can't create " + directory);
+        }
+    }
+
+    public ScheduleResult schedule(Scheduler scheduler, ProcessTable table, RunMonitor monitor) {
+        String name = scheduler.cacheKey();
+        if (name == null) return scheduler.schedule(table, monitor);
+        Key key = new Key(name, table);
+        Entry entry = lookup(key, table, monitor);
+        if (entry != null) return entry.lanes[0].withTable(table);
+
+        ScheduleResult result = null;
+        Entry prefix;
+        synchronized (this) {
+            prefix = latest.get(name);
+        }
+        if (scheduler instanceof EventDrivenScheduler && prefix != null && prefix.key.size < key.size
+                && table.contentHash(prefix.key.size) == prefix.key.hash
+                && table.sameRows(prefix.lanes[0].getTable(), prefix.key.size)) {
+            result = ((EventDrivenScheduler) scheduler).extend(prefix.lanes[0], prefix.key.size, table, monitor);
+        }
+        if (result == null) result = scheduler.schedule(table, monitor);
+        store(new Entry(key, new ScheduleResult[]{result}, 0));
+        return result;
+    }
+
+    public SmpScheduleResult schedule(SmpScheduler scheduler, ProcessTable table, RunMonitor monitor) {
+        String name = scheduler.cacheKey();
+        if (name == null) return scheduler.schedule(table, monitor);
+        Key key = new Key(name, table);
+        Entry entry = lookup(key, table, monitor);
+        if (entry != null) {
+            ScheduleResult[] lanes = new ScheduleResult[entry.lanes.length];
+            for (int cpu = 0; cpu < lanes.length; cpu++) lanes[cpu] = entry.lanes[cpu].withTable(table);
+            return new SmpScheduleResult(lanes, entry.migrations);
+        }
+        SmpScheduleResult result = scheduler.schedule(table, monitor);
+        store(new Entry(key, result.getLanes(), result.getMigrationCount()));
+        return result;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        latest.clear();
+        bytes = 0;
+    }
+
+    private Entry lookup(Key key, ProcessTable table, RunMonitor monitor) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null && !table.sameRows(entry.lanes[0].getTable(), key.size)) {
+            entry = null; // hash collision; the disk copy, if any, would be the same schedule
+        } else if (entry == null && directory != null) {
+            entry = readDisk(key, table);
+            if (entry != null) remember(entry);
+        }
+        RunMetrics metrics = monitor.metrics();
+        if (entry != null && metrics != null) metrics.addCacheHit();
+        return entry;
+    }
+
+    private void store(Entry entry) {
+        remember(entry);
+        if (directory != null && entry.bytes <= maxDiskBytes) writeDisk(entry);
+    }
+
+    private synchronized void remember(Entry entry) {
+        if (entry.bytes > maxBytes || entries.containsKey(entry.key)) return;
+        entries.put(entry.key, entry);
+        bytes += entry.bytes;
+        if (entry.lanes.length == 1) latest.put(entry.key.scheduler, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.bytes;
+            if (latest.get(evicted.key.scheduler) == evicted) latest.remove(evicted.key.scheduler);
+        }
+    }
+
+    // File names carry the key's hash; the header holds the full key, both hashes and the scheduler
+    // name, so a wrong hit needs both 64-bit hashes to collide
+    private File fileFor(Key key) {
+        return new File(directory, Long.toHexString(key.hash) + "-" + key.size + "-"
+                + Integer.toHexString(key.scheduler.hashCode()) + DISK_SUFFIX);
+    }
+
+    private Entry readDisk(Key key, ProcessTable table) {
+        synchronized (diskLock) {
+            File file = fileFor(key);
+            if (!file.isFile()) return null;
+            try (FileInputStream in = new FileInputStream(file)) {
+                FileChannel channel = in.getChannel();
+                ByteBuffer header = readFully(channel, 0, DISK_HEADER_BYTES);
+                if (header.getInt(0) != DISK_MAGIC || header.getInt(4) != TraceFiles.VERSION) {
+                    throw new IOException("not a cached schedule");
+                }
+                int nameLength = header.getInt(20);
+                if (header.getLong(8) != key.hash || header.getInt(16) != key.size
+                        || header.getLong(32) != key.check || nameLength < 0 || nameLength > channel.size()) {
+                    return null;
+                }
+                byte[] name = new byte[nameLength];
+                readFully(channel, DISK_HEADER_BYTES, nameLength).get(name);
+                if (!Arrays.equals(name, key.scheduler.getBytes(StandardCharsets.UTF_8))) return null;
+                ScheduleResult[] lanes = TraceFiles.readBlocks(channel, DISK_HEADER_BYTES + nameLength, table);
+                file.setLastModified(System.currentTimeMillis());
+                return new Entry(key, lanes, header.getLong(24));
+            } catch (IOException e) {
+                file.delete();
+                return null;
+            }
+        }
+    }
+
+    private void writeDisk(Entry entry) {
+        synchronized (diskLock) {
+            File file = fileFor(entry.key);
+            File partial = new File(directory, file.getName() + ".part");
+            try {
+                try (FileOutputStream out = new FileOutputStream(partial)) {
+                    byte[] name = entry.key.scheduler.getBytes(StandardCharsets.UTF_8);
+                    ByteBuffer header = ByteBuffer.allocate(DISK_HEADER_BYTES + name.length).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(DISK_MAGIC).putInt(TraceFiles.VERSION).putLong(entry.key.hash)
+                            .putInt(entry.key.size).putInt(name.length).putLong(entry.migrations)
+                            .putLong(entry.key.check).put(name);
+                    header.flip();
+                    FileChannel channel = out.getChannel();
+                    while (header.hasRemaining()) channel.write(header);
+                    TraceFiles.writeBlocks(entry.lanes, channel);
+                }
+                if (!partial.renameTo(file)) throw new IOException("can't rename " + partial);
+            } catch (IOException e) {
+                partial.delete();
+                return;
+            }
+            trimDisk();
+        }
+    }
+
+    private void trimDisk() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(DISK_SUFFIX));
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= maxDiskBytes) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length && total > maxDiskBytes; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) total -= length;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("truncated");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Rough heap cost: the table's columns, the per-process times and the block columns; entries
+    // hold no statistics. A table shared by several entries is counted for each of them.
+    static long estimateBytes(ScheduleResult[] lanes) {
+        int n = lanes[0].getTable().size();
+        long bytes = 28L * n + 16L * n;
+        for (ScheduleResult lane : lanes) bytes += 20L * lane.getBlockCount();
+        return bytes;
+    }
+
+    private static final class Key {
+        final String scheduler;
+        final long hash;
+        final long check;
+        final int size;
+
+        Key(String scheduler, ProcessTable table) {
+            this.scheduler = scheduler;
+            this.size = table.size();
+            this.hash = table.contentHash(size);
+            this.check = table.checkHash(size);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && check == other.check && size == other.size
+                    && scheduler.equals(other.scheduler);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash) * 31 + scheduler.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final ScheduleResult[] lanes;
+        final long migrations;
+        final long bytes;
+
+        // Keeps copies of the lanes without their statistics
+        Entry(Key key, ScheduleResult[] lanes, long migrations) {
+            this.key = key;
+            this.lanes = new ScheduleResult[lanes.length];
+            for (int cpu = 0; cpu < lanes.length; cpu++) this.lanes[cpu] = lanes[cpu].withTable(lanes[cpu].getTable());
+            this.migrations = migrations;
+            this.bytes = estimateBytes(lanes);
+        }
+    }
+}
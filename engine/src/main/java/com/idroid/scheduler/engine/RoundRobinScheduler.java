@@ -0,0 +1,37 @@
+package com.idroid.scheduler.engine;
+
+public class RoundRobinScheduler extends EventDrivenScheduler {
+    private final long quantum;
+
+    public RoundRobinScheduler(long quantum) {
+        if (quantum <= 0) throw new IllegalArgumentException("quantum must be positive: " + quantum);
+        this.quantum = quantum;
+    }
+
+    public long getQuantum() {
+        return quantum;
+    }
+
+    @Override
+    protected ReadyQueue newReadyQueue(ProcessTable table) {
+        return new IntRingBuffer(table.size());
+    }
+
+    @Override
+    protected long sliceLength(long remaining) {
+        return Math.min(quantum, remaining);
+    }
+
+    // Runs whole quanta up to the first slice boundary at or past the next arrival
+    @Override
+    protected long soloRunLength(long remaining, long untilArrival) {
+        long slicesToFinish = remaining / quantum + (remaining % quantum != 0 ? 1 : 0);
+        long slicesToArrival = untilArrival / quantum + (untilArrival % quantum != 0 ? 1 : 0);
+        return slicesToFinish <= slicesToArrival ? remaining : slicesToArrival * quantum;
+    }
+
+    @Override
+    public String cacheKey() {
+        return "RR q=" + quantum;
+    }
+}
@@ -0,0 +1,169 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Locale;
+
+/**
+ * Counters and timings of scheduling runs and of drawing their results, for finding where time
+ * goes on real workloads. Runs record into it when their {@link RunMonitor} returns it from
+ * {@link RunMonitor#metrics()}; see {@link #wrap}. Several runs recorded into one instance add
+ * up, and a run answered by {@link ResultCache} only counts as a cache hit. A run the cache
+ * answers by extending an earlier schedule counts as a run over just the added rows.
+ *
+ * <p>Not synchronized: a run fills it on its own thread and a view on the UI thread after the
+ * result was handed over, and readers should look at it on the thread that last wrote to it.
+ */
+public final class RunMetrics {
+
+    public enum Phase {
+        // Ordering processes by arrival; free when the table is already in order or was sorted before
+        SORT,
+        // The event loop
+        SIMULATE,
+        // Building the result; the statistics themselves are kept up to date while simulating
+        STATS,
+        // Drawing the chart, summed over frames
+        RENDER
+    }
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long runs;
+    private long cacheHits;
+    private long events;
+    private long heapOperations;
+    private long contextSwitches;
+    private long maxQueueDepth;
+    private long frames;
+    private long lastFrameNanos;
+    private long maxFrameNanos;
+    private long blocksDrawn;
+    private long blocksCulled;
+
+    // A monitor that passes everything on to monitor and records runs into these metrics
+    public RunMonitor wrap(RunMonitor monitor) {
+        return new RunMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return monitor.isCancelled();
+            }
+
+            @Override
+            public void onProgress(long completed, long total) {
+                monitor.onProgress(completed, total);
+            }
+
+            @Override
+            public RunMetrics metrics() {
+                return RunMetrics.this;
+            }
+        };
+    }
+
+    void addPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void addRun(long events, long heapOperations, long contextSwitches, long maxQueueDepth) {
+        runs++;
+        this.events += events;
+        this.heapOperations += heapOperations;
+        this.contextSwitches += contextSwitches;
+        this.maxQueueDepth = Math.max(this.maxQueueDepth, maxQueueDepth);
+    }
+
+    void addCacheHit() {
+        cacheHits++;
+    }
+
+    /**
+     * Records one frame of a chart: how long it took, how many blocks were painted one by one or
+     * merged into a bar, and how many were skipped, as off screen, already on a cached bitmap or
+     * only drawn through an aggregate.
+     */
+    public void recordFrame(long nanos, long drawn, long culled) {
+        frames++;
+        phaseNanos[Phase.RENDER.ordinal()] += nanos;
+        lastFrameNanos = nanos;
+        maxFrameNanos = Math.max(maxFrameNanos, nanos);
+        blocksDrawn = drawn;
+        blocksCulled = culled;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    // Runs simulated, not counting cache hits
+    public long getRunCount() {
+        return runs;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    // Iterations of the event loop: arrivals, slice ends and idle jumps, several at one instant counting once
+    public long getEvents() {
+        return events;
+    }
+
+    // Adds, polls, removals and key updates on the binary heaps of ready queues and, on several
+    // CPUs, of the CPU bookkeeping; ring-buffer queues do none
+    public long getHeapOperations() {
+        return heapOperations;
+    }
+
+    // Dispatches of a different process than the one a CPU ran last
+    public long getContextSwitches() {
+        return contextSwitches;
+    }
+
+    // Most processes waiting in one ready queue at once
+    public long getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+
+    public long getAverageFrameNanos() {
+        return frames == 0 ? 0 : phaseNanos[Phase.RENDER.ordinal()] / frames;
+    }
+
+    // Of the last frame
+    public long getBlocksDrawn() {
+        return blocksDrawn;
+    }
+
+    // Of the last frame
+    public long getBlocksCulled() {
+        return blocksCulled;
+    }
+
+    // A few lines of text, e.g. for an on-screen overlay
+    public String format() {
+        return String.format(Locale.US,
+                "runs %d, cache hits %d%n"
+                        + "sort %.1f ms, simulate %.1f ms, stats %.1f ms%n"
+                        + "events %d, heap ops %d%n"
+                        + "context switches %d, max queue %d%n"
+                        + "frames %d, last %.2f ms, avg %.2f ms, max %.2f ms%n"
+                        + "blocks drawn %d, culled %d",
+                runs, cacheHits, millis(getPhaseNanos(Phase.SORT)), millis(getPhaseNanos(Phase.SIMULATE)),
+                millis(getPhaseNanos(Phase.STATS)), events, heapOperations, contextSwitches, maxQueueDepth,
+                frames, millis(lastFrameNanos), millis(getAverageFrameNanos()), millis(maxFrameNanos),
+                blocksDrawn, blocksCulled);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,30 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Lets the caller of a long run follow its progress and stop it. The engine polls the monitor
+ * every few thousand events, so both methods should be cheap; a cancelled run ends by throwing
+ * {@link java.util.concurrent.CancellationException}.
+ */
+public interface RunMonitor {
+
+    RunMonitor NONE = new RunMonitor() {
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void onProgress(long completed, long total) {
+        }
+    };
+
+    boolean isCancelled();
+
+    // Called from the thread running the schedule
+    void onProgress(long completed, long total);
+
+    // Where the run records its counters and timings; null, the default, records nothing
+    default RunMetrics metrics() {
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Streaming summary of one metric: exact count, sum, min, max, mean and variance (Welford),
+ * plus approximate percentiles from a {@link LogHistogram}. Memory use does not depend on how
+ * many values are added.
+ */
+public final class RunningStats {
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    private double m2;
+    private final LogHistogram histogram = new LogHistogram();
+
+    public void add(long value) {
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        histogram.record(value);
+    }
+
+    // Combines two summaries as if every value had been added to this one (Chan et al.)
+    public void merge(RunningStats other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long combined = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / combined;
+            m2 += other.m2 + delta * delta * count * other.count / combined;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        histogram.merge(other.histogram);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Population variance
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    // percentile in [0, 100]; accurate to about 1.6%, and always within [min, max]
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long value = histogram.valueAt(percentile / 100.0);
+        return Math.max(getMin(), Math.min(getMax(), value));
+    }
+}
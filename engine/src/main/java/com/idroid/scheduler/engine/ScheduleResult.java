@@ -0,0 +1,138 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Output of a {@link Scheduler} run, stored column-wise like {@link ProcessTable}.
+ * Blocks are indexed {@code 0..getBlockCount()-1} in time order; per-process values are
+ * indexed by table id.
+ */
+public class ScheduleResult {
+    private final ProcessTable table;
+    private final int blockCount;
+    private final int[] blockProcess;
+    private final long[] blockStart;
+    private final long[] blockEnd;
+    private final long[] startTimes;
+    private final long[] finishTimes;
+    private final int completedCount;
+    private final long busyTime;
+    private volatile ScheduleStats stats; // null until asked for on a lane or a cached result
+
+    ScheduleResult(ProcessTable table, int blockCount, int[] blockProcess, long[] blockStart,
+                   long[] blockEnd, long[] startTimes, long[] finishTimes, int completedCount,
+                   ScheduleStats stats, long busyTime) {
+        this.table = table;
+        this.blockCount = blockCount;
+        this.blockProcess = blockProcess;
+        this.blockStart = blockStart;
+        this.blockEnd = blockEnd;
+        this.startTimes = startTimes;
+        this.finishTimes = finishTimes;
+        this.completedCount = completedCount;
+        this.stats = stats;
+        this.busyTime = busyTime;
+    }
+
+    // The same schedule over a table with the same rows, sharing the arrays but not the
+    // statistics, which the copy rebuilds from the blocks if asked for
+    ScheduleResult withTable(ProcessTable table) {
+        return new ScheduleResult(table, blockCount, blockProcess, blockStart, blockEnd,
+                startTimes, finishTimes, completedCount, null, busyTime);
+    }
+
+    public ProcessTable getTable() {
+        return table;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    // Table id of the process running in block i
+    public int getBlockProcess(int i) {
+        return blockProcess[i];
+    }
+
+    public String getBlockName(int i) {
+        return table.name(blockProcess[i]);
+    }
+
+    public long getBlockStart(int i) {
+        return blockStart[i];
+    }
+
+    public long getBlockEnd(int i) {
+        return blockEnd[i];
+    }
+
+    /**
+     * Index of the first block ending after time, or getBlockCount() if none does. Blocks never
+     * overlap and are stored in time order, so a binary search over the ends is enough to find
+     * the blocks visible in a time window.
+     */
+    public int firstBlockEndingAfter(long time) {
+        int lo = 0, hi = blockCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blockEnd[mid] <= time) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // End of the last block, 0 when nothing ran
+    public long getMakespan() {
+        return blockCount == 0 ? 0 : blockEnd[blockCount - 1];
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    // A lane of a multi-CPU run or a cached result builds these from its blocks on first call
+    public ScheduleStats getStats() {
+        ScheduleStats result = stats;
+        if (result == null) {
+            result = new ScheduleStats();
+            recordInto(result);
+            stats = result;
+        }
+        return result;
+    }
+
+    long busyTime() {
+        return busyTime;
+    }
+
+    // Feeds this timeline's blocks, and the completions that end them, into stats. A process
+    // completes at the end of the block that ends at its finish time, on whichever lane that is.
+    void recordInto(ScheduleStats stats) {
+        for (int i = 0; i < blockCount; i++) {
+            int id = blockProcess[i];
+            stats.onBlock(id, null, blockStart[i], blockEnd[i]);
+            if (finishTimes[id] == blockEnd[i]) {
+                stats.onCompletion(id, null, table.arrival(id), table.burst(id), startTimes[id], finishTimes[id]);
+            }
+        }
+    }
+
+    // False for processes the algorithm skipped, e.g. ones without a priority
+    public boolean isCompleted(int id) {
+        return finishTimes[id] >= 0;
+    }
+
+    public long getStartTime(int id) {
+        return startTimes[id];
+    }
+
+    public long getFinishTime(int id) {
+        return finishTimes[id];
+    }
+
+    public long getTurnaroundTime(int id) {
+        return finishTimes[id] - table.arrival(id);
+    }
+
+    public long getWaitingTime(int id) {
+        return finishTimes[id] - table.arrival(id) - table.burst(id);
+    }
+}
@@ -0,0 +1,14 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Receives the output of a streaming run as soon as each piece is final. {@code process} is
+ * the 0-based position of the process in the input stream.
+ */
+public interface ScheduleSink {
+
+    // A block that will not be extended any further
+    void onBlock(long process, String name, long start, long end);
+
+    // Called once per completed process, after its last block
+    void onCompletion(long process, String name, long arrival, long burst, long start, long finish);
+}
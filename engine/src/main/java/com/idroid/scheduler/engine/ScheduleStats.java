@@ -0,0 +1,77 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Statistics of a run, updated as blocks and completions happen instead of being computed
+ * afterwards. The timeline starts at t=0, as in the Gantt chart, so idle time includes any gap
+ * before the first arrival. Also usable directly as the sink of a streaming run. For a run on
+ * several CPUs, busy and idle time add up over all of them.
+ */
+public final class ScheduleStats implements ScheduleSink {
+    private final RunningStats waiting = new RunningStats();
+    private final RunningStats turnaround = new RunningStats();
+    private long busyTime;
+    private long makespan;
+    private int cpuCount = 1;
+
+    @Override
+    public void onBlock(long process, String name, long start, long end) {
+        busyTime += end - start;
+        if (end > makespan) makespan = end;
+    }
+
+    @Override
+    public void onCompletion(long process, String name, long arrival, long burst, long start, long finish) {
+        waiting.add(finish - arrival - burst);
+        turnaround.add(finish - arrival);
+    }
+
+    // Adds another run's numbers, e.g. from a chunk of a split trace laid out after this one
+    public void merge(ScheduleStats other) {
+        waiting.merge(other.waiting);
+        turnaround.merge(other.turnaround);
+        busyTime += other.busyTime;
+        makespan = Math.max(makespan, other.makespan);
+    }
+
+    void setCpuCount(int cpuCount) {
+        this.cpuCount = cpuCount;
+    }
+
+    public int getCpuCount() {
+        return cpuCount;
+    }
+
+    public long getCompletedCount() {
+        return waiting.getCount();
+    }
+
+    public RunningStats getWaitingTime() {
+        return waiting;
+    }
+
+    public RunningStats getTurnaroundTime() {
+        return turnaround;
+    }
+
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    public long getMakespan() {
+        return makespan;
+    }
+
+    public long getIdleTime() {
+        return makespan * cpuCount - busyTime;
+    }
+
+    // Fraction of [0, makespan] the CPUs were running a process, averaged over the CPUs
+    public double getCpuUtilisation() {
+        return makespan == 0 ? 0 : (double) busyTime / makespan / cpuCount;
+    }
+
+    // Completed processes per time unit
+    public double getThroughput() {
+        return makespan == 0 ? 0 : (double) getCompletedCount() / makespan;
+    }
+}
@@ -0,0 +1,23 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * A CPU scheduling algorithm. Implementations never modify the table, so one table can be
+ * scheduled by several algorithms at once.
+ */
+public interface Scheduler {
+
+    ScheduleResult schedule(ProcessTable table, RunMonitor monitor);
+
+    default ScheduleResult schedule(ProcessTable table) {
+        return schedule(table, RunMonitor.NONE);
+    }
+
+    /**
+     * Names the algorithm and its parameters, such as "RR q=2", so that equal keys give equal
+     * schedules for equal tables; {@link ResultCache} stores results under it. Null, the default,
+     * means results are not cached. Subclasses that change how a scheduler behaves must override it.
+     */
+    default String cacheKey() {
+        return null;
+    }
+}
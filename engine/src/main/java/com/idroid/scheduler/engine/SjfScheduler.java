@@ -0,0 +1,15 @@
+package com.idroid.scheduler.engine;
+
+// Non-preemptive Shortest Job First
+public class SjfScheduler extends NonPreemptiveScheduler {
+
+    @Override
+    protected long keyOf(ProcessTable table, int id) {
+        return table.burst(id);
+    }
+
+    @Override
+    public String cacheKey() {
+        return "SJF";
+    }
+}
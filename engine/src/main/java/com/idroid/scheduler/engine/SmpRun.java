@@ -0,0 +1,333 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * One run of an {@link SmpScheduler}. Every ready queue works over its own small
+ * {@link ProcessTable} of slots, recycled the way {@link StreamingRun} recycles them, so a
+ * machine with thousands of per-CPU queues only holds the rows each queue has waiting.
+ *
+ * <p>A slice is decided at dispatch as if no more processes were coming. An arrival queued
+ * behind a running process re-decides that slice with the arrival time as the next arrival,
+ * which is exactly what the single-CPU loop would have chosen had it known, so one CPU with a
+ * global queue reproduces {@link EventDrivenScheduler#schedule(ProcessTable, RunMonitor)}.
+ * The exception is CFS: arrivals are queued when they arrive rather than when the running
+ * slice ends, so they start from the minimum virtual runtime as of their arrival.
+ */
+final class SmpRun {
+    private static final int MONITOR_INTERVAL = 4096; // events between monitor polls, power of 2
+
+    private final EventDrivenScheduler policy;
+    private final int cpus;
+    private final boolean global;
+    private final ProcessTable table;
+    private final RunMonitor monitor;
+
+    private final RunQueue[] queues; // one shared queue, or one per CPU
+    private final ResultBuilder[] lanes;
+    private final ScheduleStats machineStats = new ScheduleStats(); // shared by the lanes
+    private final int[] running; // slot running on each CPU, -1 when idle
+    private final long[] sliceStart;
+    private final long[] sliceEnd;
+    private final boolean[] reconsidered; // the running slice has seen its first arrival
+    private final IndexedHeap busy; // running CPUs by slice end
+    private final IndexedHeap latest; // running CPUs, latest slice end first; global queue only
+    private final IndexedHeap busiest; // CPUs by queued count, most first; work stealing only
+    private final int[] idle; // stack of idle CPUs; global queue and work stealing only
+    private int idleCount;
+    private final int[] pending; // CPUs to dispatch at the end of this event; per-CPU queues only
+    private final boolean[] isPending;
+    private int pendingCount;
+    private final int[] heldCpu; // preempted at this event, queued again after its arrivals
+    private final int[] heldSlot;
+    private int heldCount;
+    private int nextCpu; // round-robin placement
+    private long migrations;
+    private long completed;
+    private final int[] lastProcess; // process each CPU ran last, -1 before the first
+    private long switches;
+    private int maxWaiting;
+
+    SmpRun(EventDrivenScheduler policy, int cpus, SmpScheduler.Balancing balancing, ProcessTable table,
+           RunMonitor monitor) {
+        this.policy = policy;
+        this.cpus = cpus;
+        this.global = balancing == SmpScheduler.Balancing.GLOBAL_QUEUE;
+        this.table = table;
+        this.monitor = monitor;
+
+        queues = new RunQueue[global ? 1 : cpus];
+        for (int i = 0; i < queues.length; i++) queues[i] = new RunQueue();
+        long[] startTimes = ResultBuilder.newTimes(table.size());
+        long[] finishTimes = ResultBuilder.newTimes(table.size());
+        lanes = new ResultBuilder[cpus];
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            lanes[cpu] = new ResultBuilder(table, startTimes, finishTimes, 16, machineStats);
+        }
+
+        running = new int[cpus];
+        Arrays.fill(running, -1);
+        sliceStart = new long[cpus];
+        sliceEnd = new long[cpus];
+        reconsidered = new boolean[cpus];
+        busy = new IndexedHeap(cpus, (a, b) -> Long.compare(sliceEnd[a], sliceEnd[b]));
+        latest = global ? new IndexedHeap(cpus, (a, b) -> Long.compare(sliceEnd[b], sliceEnd[a])) : null;
+        if (balancing == SmpScheduler.Balancing.WORK_STEALING) {
+            busiest = new IndexedHeap(cpus, (a, b) -> Integer.compare(queues[b].waiting, queues[a].waiting));
+            for (int cpu = 0; cpu < cpus; cpu++) busiest.add(cpu);
+        } else {
+            busiest = null;
+        }
+        idle = new int[cpus];
+        if (busiest != null || global) {
+            // Popped from the top, so CPU 0 takes work first
+            for (int cpu = cpus - 1; cpu >= 0; cpu--) idle[idleCount++] = cpu;
+        }
+        pending = new int[cpus];
+        isPending = new boolean[cpus];
+        heldCpu = new int[cpus];
+        heldSlot = new int[cpus];
+        lastProcess = new int[cpus];
+        Arrays.fill(lastProcess, -1);
+    }
+
+    SmpScheduleResult run() {
+        long begin = System.nanoTime();
+        int[] order = policy.acceptedArrivalOrder(table);
+        long sorted = System.nanoTime();
+        int n = order.length;
+        int next = 0;
+        long events = 0;
+
+        while (true) {
+            if ((++events & (MONITOR_INTERVAL - 1)) == 0) {
+                if (monitor.isCancelled()) throw new CancellationException();
+                monitor.onProgress(completed, n);
+            }
+            long nextArrival = next < n ? table.arrival(order[next]) : Long.MAX_VALUE;
+            long nextEnd = busy.isEmpty() ? Long.MAX_VALUE : sliceEnd[busy.peek()];
+            if (nextArrival == Long.MAX_VALUE && nextEnd == Long.MAX_VALUE) break;
+            long time = Math.min(nextArrival, nextEnd);
+
+            // The queues see a slice end before the arrivals at the same moment, and the
+            // arrivals queue up ahead of the preempted processes, as on a single CPU
+            while (!busy.isEmpty() && sliceEnd[busy.peek()] <= time) endSlice(busy.poll());
+            while (next < n && table.arrival(order[next]) <= time) place(order[next++], time);
+            for (int i = 0; i < heldCount; i++) {
+                queueOf(heldCpu[i]).add(heldSlot[i]);
+                if (busiest != null) busiest.update(heldCpu[i]);
+            }
+            heldCount = 0;
+            dispatch(time);
+        }
+        monitor.onProgress(n, n);
+        long simulated = System.nanoTime();
+
+        ScheduleResult[] results = new ScheduleResult[cpus];
+        for (int cpu = 0; cpu < cpus; cpu++) results[cpu] = lanes[cpu].build();
+        SmpScheduleResult result = new SmpScheduleResult(results, migrations, machineStats);
+        RunMetrics metrics = monitor.metrics();
+        if (metrics != null) {
+            metrics.addPhase(RunMetrics.Phase.SORT, sorted - begin);
+            metrics.addPhase(RunMetrics.Phase.SIMULATE, simulated - sorted);
+            metrics.addPhase(RunMetrics.Phase.STATS, System.nanoTime() - simulated);
+            long heapOperations = busy.heapOperations();
+            if (latest != null) heapOperations += latest.heapOperations();
+            if (busiest != null) heapOperations += busiest.heapOperations();
+            for (RunQueue queue : queues) heapOperations += queue.ready.heapOperations();
+            metrics.addRun(events, heapOperations, switches, maxWaiting);
+        }
+        return result;
+    }
+
+    private RunQueue queueOf(int cpu) {
+        return queues[global ? 0 : cpu];
+    }
+
+    private void place(int id, long time) {
+        int cpu;
+        if (global) {
+            // With a CPU free the arrival is dispatched below; otherwise it may cut one slice short
+            if (idleCount == 0) reconsider(latest.peek(), time);
+            RunQueue queue = queues[0];
+            queue.add(queue.admit(id, table.burst(id), -1));
+            return;
+        }
+        if (busiest != null && idleCount > 0) {
+            cpu = idle[--idleCount];
+        } else {
+            cpu = nextCpu;
+            if (++nextCpu == cpus) nextCpu = 0;
+        }
+        if (running[cpu] >= 0) {
+            reconsider(cpu, time);
+        } else if (!isPending[cpu]) {
+            isPending[cpu] = true;
+            pending[pendingCount++] = cpu;
+        }
+        RunQueue queue = queues[cpu];
+        queue.add(queue.admit(id, table.burst(id), -1));
+        if (busiest != null) busiest.update(cpu);
+    }
+
+    // Shortens the running slice of cpu now that a process arrives at time. Only the first
+    // arrival counts, like the next arrival a single CPU looks at when it dispatches.
+    private void reconsider(int cpu, long time) {
+        if (reconsidered[cpu] || sliceEnd[cpu] <= time) return;
+        reconsidered[cpu] = true;
+        RunQueue queue = queueOf(cpu);
+        int slot = running[cpu];
+        long untilArrival = time - sliceStart[cpu];
+        long remaining = queue.remaining[slot];
+        long run = queue.ready.isEmpty()
+                ? policy.soloRunLength(remaining, untilArrival)
+                : policy.sliceLength(remaining);
+        run = Math.min(run, queue.ready.runLimit(slot, untilArrival));
+        long end = Math.max(time, sliceStart[cpu] + run);
+        if (end < sliceEnd[cpu]) {
+            sliceEnd[cpu] = end;
+            busy.update(cpu);
+            if (global) latest.update(cpu);
+        }
+    }
+
+    private void endSlice(int cpu) {
+        RunQueue queue = queueOf(cpu);
+        int slot = running[cpu];
+        int id = queue.globalId[slot];
+        long end = sliceEnd[cpu];
+        long ran = end - sliceStart[cpu];
+        lanes[cpu].addBlock(id, sliceStart[cpu], end);
+        queue.remaining[slot] -= ran;
+        queue.ready.onRun(slot, ran, queue.remaining[slot]);
+        queue.lastCpu[slot] = cpu;
+        if (queue.remaining[slot] > 0) {
+            heldCpu[heldCount] = cpu;
+            heldSlot[heldCount++] = slot;
+        } else {
+            lanes[cpu].complete(id, end);
+            completed++;
+            queue.release(slot);
+        }
+
+        running[cpu] = -1;
+        if (global) {
+            latest.remove(cpu);
+            idle[idleCount++] = cpu;
+        } else {
+            isPending[cpu] = true;
+            pending[pendingCount++] = cpu;
+        }
+    }
+
+    private void dispatch(long time) {
+        if (global) {
+            RunQueue queue = queues[0];
+            while (idleCount > 0 && !queue.ready.isEmpty()) start(idle[--idleCount], queue, time);
+            return;
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            int cpu = pending[i];
+            isPending[cpu] = false;
+            if (!queues[cpu].ready.isEmpty()) {
+                start(cpu, queues[cpu], time);
+            } else if (busiest != null) {
+                idle[idleCount++] = cpu;
+            }
+        }
+        pendingCount = 0;
+        if (busiest == null) return;
+
+        while (idleCount > 0 && queues[busiest.peek()].waiting > 0) {
+            int cpu = idle[idleCount - 1];
+            if (!steal(busiest.peek(), cpu)) break;
+            idleCount--;
+            start(cpu, queues[cpu], time);
+        }
+    }
+
+    // Moves one waiting process from victim's queue to thief's; false if the queue won't give one up
+    private boolean steal(int victim, int thief) {
+        RunQueue from = queues[victim], to = queues[thief];
+        int slot = from.ready.steal();
+        if (slot < 0) return false;
+        from.waiting--;
+        long state = from.ready.migrateOut(slot);
+        int moved = to.admit(from.globalId[slot], from.remaining[slot], from.lastCpu[slot]);
+        to.ready.migrateIn(moved, state);
+        to.add(moved);
+        from.release(slot);
+        busiest.update(victim);
+        busiest.update(thief);
+        return true;
+    }
+
+    private void start(int cpu, RunQueue queue, long time) {
+        int slot = queue.poll();
+        if (busiest != null) busiest.update(cpu);
+        if (queue.lastCpu[slot] >= 0 && queue.lastCpu[slot] != cpu) migrations++;
+        int id = queue.globalId[slot];
+        if (lastProcess[cpu] >= 0 && lastProcess[cpu] != id) switches++;
+        lastProcess[cpu] = id;
+        long remaining = queue.remaining[slot];
+        long run = queue.ready.isEmpty()
+                ? policy.soloRunLength(remaining, Long.MAX_VALUE)
+                : policy.sliceLength(remaining);
+        run = Math.min(run, queue.ready.runLimit(slot, Long.MAX_VALUE));
+        running[cpu] = slot;
+        sliceStart[cpu] = time;
+        sliceEnd[cpu] = time + run;
+        reconsidered[cpu] = false;
+        busy.add(cpu);
+        if (global) latest.add(cpu);
+    }
+
+    // A ready queue with its own table of slots; a slot holds a copy of the process row
+    private final class RunQueue {
+        final ProcessTable slots = new ProcessTable();
+        final ReadyQueue ready = policy.newReadyQueue(slots);
+        int[] globalId = new int[16];
+        long[] remaining = new long[16];
+        int[] lastCpu = new int[16]; // -1 until the process first ran
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        int waiting; // queued, not running
+
+        // Unnamed rows get their display name, which keeps name order the same as in the table
+        int admit(int id, long remaining, int lastCpu) {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+                slots.set(slot, table.name(id), table.arrival(id), table.burst(id), table.priority(id));
+            } else {
+                slot = slots.add(table.name(id), table.arrival(id), table.burst(id), table.priority(id));
+                if (slot == globalId.length) {
+                    int capacity = slot * 2;
+                    globalId = Arrays.copyOf(globalId, capacity);
+                    this.remaining = Arrays.copyOf(this.remaining, capacity);
+                    this.lastCpu = Arrays.copyOf(this.lastCpu, capacity);
+                }
+            }
+            globalId[slot] = id;
+            this.remaining[slot] = remaining;
+            this.lastCpu[slot] = lastCpu;
+            return slot;
+        }
+
+        void add(int slot) {
+            ready.add(slot);
+            if (++waiting > maxWaiting) maxWaiting = waiting;
+        }
+
+        int poll() {
+            waiting--;
+            return ready.poll();
+        }
+
+        void release(int slot) {
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = slot;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Output of an {@link SmpScheduler} run: one {@link ScheduleResult} lane per CPU over the same
+ * table, plus statistics for the whole machine. A process that migrated has blocks in several
+ * lanes; its start and finish times are the same in all of them.
+ */
+public final class SmpScheduleResult {
+    private final ScheduleResult[] lanes;
+    private final long migrationCount;
+    private volatile ScheduleStats stats;
+
+    // Rebuilds the machine's statistics from the lanes' blocks when first asked for
+    SmpScheduleResult(ScheduleResult[] lanes, long migrationCount) {
+        this.lanes = lanes;
+        this.migrationCount = migrationCount;
+    }
+
+    // stats were recorded for the whole machine while the lanes were built
+    SmpScheduleResult(ScheduleResult[] lanes, long migrationCount, ScheduleStats stats) {
+        this(lanes, migrationCount);
+        stats.setCpuCount(lanes.length);
+        this.stats = stats;
+    }
+
+    // One set of histograms for all lanes rather than one per lane, which adds up at thousands of CPUs
+    private static ScheduleStats statsOf(ScheduleResult[] lanes) {
+        ScheduleStats stats = new ScheduleStats();
+        for (ScheduleResult lane : lanes) lane.recordInto(stats);
+        stats.setCpuCount(lanes.length);
+        return stats;
+    }
+
+    public int getCpuCount() {
+        return lanes.length;
+    }
+
+    public ScheduleResult getLane(int cpu) {
+        return lanes[cpu];
+    }
+
+    public ScheduleResult[] getLanes() {
+        return lanes.clone();
+    }
+
+    public ScheduleStats getStats() {
+        ScheduleStats result = stats;
+        if (result == null) {
+            result = statsOf(lanes);
+            stats = result;
+        }
+        return result;
+    }
+
+    public long getMakespan() {
+        long makespan = 0;
+        for (ScheduleResult lane : lanes) makespan = Math.max(makespan, lane.getMakespan());
+        return makespan;
+    }
+
+    public long getCompletedCount() {
+        return getStats().getCompletedCount();
+    }
+
+    // Times a process resumed on a different CPU from the one it last ran on
+    public long getMigrationCount() {
+        return migrationCount;
+    }
+
+    // Fraction of the machine's makespan this CPU was busy
+    public double getCpuUtilisation(int cpu) {
+        long makespan = getMakespan();
+        return makespan == 0 ? 0 : (double) lanes[cpu].busyTime() / makespan;
+    }
+}
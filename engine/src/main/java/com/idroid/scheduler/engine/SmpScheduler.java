@@ -0,0 +1,56 @@
+package com.idroid.scheduler.engine;
+
+/**
+ * Runs a single-CPU policy on several identical CPUs. With {@link Balancing#GLOBAL_QUEUE}
+ * every CPU takes work from one shared ready queue. With {@link Balancing#PER_CPU} each CPU has
+ * its own queue and arrivals are spread over the CPUs round-robin, so load can stay uneven,
+ * and {@link Balancing#WORK_STEALING} adds the usual fix: arrivals go to an idle CPU first, and
+ * a CPU that runs dry takes a waiting process from the CPU with the most queued.
+ *
+ * <p>An arrival may only preempt one CPU: the one it is queued on, or under a global queue the
+ * one whose slice ends last. A run costs O(log cpus) per event on top of the policy's own
+ * queue operations, so thousands of CPUs are no more expensive per event than a few.
+ */
+public final class SmpScheduler {
+
+    public enum Balancing {
+        GLOBAL_QUEUE, PER_CPU, WORK_STEALING
+    }
+
+    private final int cpuCount;
+    private final Balancing balancing;
+    private final EventDrivenScheduler policy;
+
+    // policy has to be one of the engine's event-driven schedulers
+    public SmpScheduler(int cpuCount, Balancing balancing, Scheduler policy) {
+        if (cpuCount <= 0) throw new IllegalArgumentException("CPU count must be positive: " + cpuCount);
+        if (!(policy instanceof EventDrivenScheduler)) {
+            throw new IllegalArgumentException("not an event-driven scheduler: " + policy.getClass().getName());
+        }
+        this.cpuCount = cpuCount;
+        this.balancing = balancing;
+        this.policy = (EventDrivenScheduler) policy;
+    }
+
+    public int getCpuCount() {
+        return cpuCount;
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    // The policy's key with the CPU count and balancing, or null when the policy has none
+    public String cacheKey() {
+        String policyKey = policy.cacheKey();
+        return policyKey == null ? null : "SMP " + cpuCount + " " + balancing + " " + policyKey;
+    }
+
+    public SmpScheduleResult schedule(ProcessTable table, RunMonitor monitor) {
+        return new SmpRun(policy, cpuCount, balancing, table, monitor).run();
+    }
+
+    public SmpScheduleResult schedule(ProcessTable table) {
+        return schedule(table, RunMonitor.NONE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.idroid.scheduler.engine;
+
+// Shortest Remaining Time First: preemptive SJF, an arrival with a shorter burst than
+// what is left of the running process takes the CPU.
+public class SrtfScheduler extends PreemptiveScheduler {
+
+    @Override
+    protected long keyOf(ProcessTable table, int id, long ran) {
+        return table.burst(id) - ran;
+    }
+
+    @Override
+    public String cacheKey() {
+        return "SRTF";
+    }
+}
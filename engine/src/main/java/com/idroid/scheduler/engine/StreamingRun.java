@@ -0,0 +1,139 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * One streaming run of an {@link EventDrivenScheduler}. Admitted processes live in a small
+ * {@link ProcessTable} whose rows are recycled once a process completes, so the table never
+ * grows beyond the number of processes waiting at the same time.
+ */
+final class StreamingRun {
+    private final EventDrivenScheduler scheduler;
+    private final Iterator<ProcessModel> input;
+    private final ScheduleSink sink;
+    private final ProcessTable slots = new ProcessTable();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private long[] remaining = new long[16];
+    private long[] startTimes = new long[16];
+    private long[] sequence = new long[16];
+    private long nextSequence;
+    private long lastArrival = Long.MIN_VALUE;
+    private int lookahead = -1; // next accepted process, read but not yet admitted
+
+    // Block not yet handed to the sink because the same process may continue it
+    private int pendingSlot = -1;
+    private long pendingStart, pendingEnd;
+
+    StreamingRun(EventDrivenScheduler scheduler, Iterator<ProcessModel> input, ScheduleSink sink) {
+        this.scheduler = scheduler;
+        this.input = input;
+        this.sink = sink;
+    }
+
+    void run() {
+        ReadyQueue readyQueue = scheduler.newReadyQueue(slots);
+        readAhead();
+        long time = 0;
+
+        while (lookahead >= 0 || !readyQueue.isEmpty()) {
+            while (lookahead >= 0 && slots.arrival(lookahead) <= time) {
+                readyQueue.add(lookahead);
+                readAhead();
+            }
+            if (readyQueue.isEmpty()) {
+                time = slots.arrival(lookahead);
+                continue;
+            }
+
+            int slot = readyQueue.poll();
+            long untilArrival = lookahead >= 0 ? slots.arrival(lookahead) - time : Long.MAX_VALUE;
+            long run = readyQueue.isEmpty()
+                    ? scheduler.soloRunLength(remaining[slot], untilArrival)
+                    : scheduler.sliceLength(remaining[slot]);
+            run = Math.min(run, readyQueue.runLimit(slot, untilArrival));
+            addBlock(slot, time, time + run);
+            time += run;
+            remaining[slot] -= run;
+            readyQueue.onRun(slot, run, remaining[slot]);
+
+            if (remaining[slot] > 0) {
+                while (lookahead >= 0 && slots.arrival(lookahead) <= time) {
+                    readyQueue.add(lookahead);
+                    readAhead();
+                }
+                readyQueue.add(slot);
+            } else {
+                flushBlock();
+                sink.onCompletion(sequence[slot], slots.name(slot), slots.arrival(slot),
+                        slots.burst(slot), startTimes[slot], time);
+                freeSlots = grow(freeSlots, freeCount + 1);
+                freeSlots[freeCount++] = slot;
+            }
+        }
+        flushBlock();
+    }
+
+    // Pulls input until the next process the scheduler accepts, or sets lookahead to -1
+    private void readAhead() {
+        lookahead = -1;
+        while (input.hasNext()) {
+            ProcessModel p = input.next();
+            long seq = nextSequence++;
+            if (p.arrival < lastArrival) {
+                throw new IllegalArgumentException("process " + seq + " arrives at " + p.arrival
+                        + ", before the previous arrival at " + lastArrival);
+            }
+            lastArrival = p.arrival;
+
+            String name = p.name != null ? p.name : "P" + (seq + 1);
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+                slots.set(slot, name, p.arrival, p.burst, p.priority);
+            } else {
+                slot = slots.add(name, p.arrival, p.burst, p.priority);
+                remaining = grow(remaining, slot + 1);
+                startTimes = grow(startTimes, slot + 1);
+                sequence = grow(sequence, slot + 1);
+            }
+            if (!scheduler.accepts(slots, slot)) {
+                freeSlots = grow(freeSlots, freeCount + 1);
+                freeSlots[freeCount++] = slot;
+                continue;
+            }
+            remaining[slot] = p.burst;
+            startTimes[slot] = -1;
+            sequence[slot] = seq;
+            lookahead = slot;
+            return;
+        }
+    }
+
+    private void addBlock(int slot, long start, long end) {
+        if (startTimes[slot] < 0) startTimes[slot] = start;
+        if (pendingSlot == slot && pendingEnd == start) {
+            pendingEnd = end;
+            return;
+        }
+        flushBlock();
+        pendingSlot = slot;
+        pendingStart = start;
+        pendingEnd = end;
+    }
+
+    private void flushBlock() {
+        if (pendingSlot < 0) return;
+        sink.onBlock(sequence[pendingSlot], slots.name(pendingSlot), pendingStart, pendingEnd);
+        pendingSlot = -1;
+    }
+
+    private static long[] grow(long[] array, int minLength) {
+        return minLength <= array.length ? array : Arrays.copyOf(array, Math.max(minLength, array.length * 2));
+    }
+
+    private static int[] grow(int[] array, int minLength) {
+        return minLength <= array.length ? array : Arrays.copyOf(array, Math.max(minLength, array.length * 2));
+    }
+}
@@ -0,0 +1,15 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Iterator;
+
+/**
+ * A {@link Scheduler} that can also consume its input incrementally. Processes are pulled from
+ * the iterator only when the simulation clock reaches them, so memory is bounded by the number
+ * of processes waiting at once rather than by the length of the trace.
+ */
+public interface StreamingScheduler extends Scheduler {
+
+    // processes must be in non-decreasing arrival order; an out-of-order row throws
+    // IllegalArgumentException
+    void schedule(Iterator<ProcessModel> processes, ScheduleSink sink);
+}
@@ -0,0 +1,96 @@
+package com.idroid.scheduler.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs several scheduler configurations over the same {@link ProcessTable} in parallel and
+ * collects their statistics for comparison. Every run reads the one shared table; only the
+ * per-run scratch arrays and results are allocated per task.
+ */
+public final class SweepRunner {
+    private final ForkJoinPool pool;
+
+    public SweepRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SweepRunner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Every algorithm with its default parameters plus Round Robin with each quantum from 1 to maxQuantum
+    public static List<Config> standardConfigs(int maxQuantum) {
+        List<Config> configs = new ArrayList<>(7 + maxQuantum);
+        configs.add(new Config("FCFS", new FcfsScheduler()));
+        configs.add(new Config("SJF", new SjfScheduler()));
+        configs.add(new Config("Priority", new PriorityScheduler()));
+        configs.add(new Config("SRTF", new SrtfScheduler()));
+        configs.add(new Config("Prio+aging", new PreemptivePriorityScheduler(10)));
+        configs.add(new Config("MLFQ", new MlfqScheduler(3, 2)));
+        configs.add(new Config("CFS", new CfsScheduler()));
+        for (int q = 1; q <= maxQuantum; q++) {
+            configs.add(new Config("RR q=" + q, new RoundRobinScheduler(q)));
+        }
+        return configs;
+    }
+
+    // Rows come back in the order of configs
+    public List<Row> run(ProcessTable table, List<Config> configs) {
+        // Fill the shared caches before any task reads them
+        table.arrivalOrder();
+        table.contentHash();
+        List<ForkJoinTask<Row>> tasks = new ArrayList<>(configs.size());
+        for (Config config : configs) {
+            tasks.add(pool.submit(() -> {
+                long begin = System.nanoTime();
+                ScheduleStats stats = config.scheduler.schedule(table).getStats();
+                return new Row(config.label, stats, System.nanoTime() - begin);
+            }));
+        }
+        List<Row> rows = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Row> task : tasks) rows.add(task.join());
+        return rows;
+    }
+
+    // Fixed-width text table, one line per row
+    public static String format(List<Row> rows) {
+        StringBuilder out = new StringBuilder(String.format(Locale.US,
+                "%-12s %10s %10s %10s %10s %10s %8s %12s%n",
+                "config", "avg WT", "p95 WT", "p99 WT", "avg TAT", "p99 TAT", "util %", "throughput"));
+        for (Row row : rows) {
+            ScheduleStats s = row.stats;
+            out.append(String.format(Locale.US, "%-12s %10.2f %10d %10d %10.2f %10d %8.1f %12.4f%n",
+                    row.label, s.getWaitingTime().getMean(), s.getWaitingTime().getPercentile(95),
+                    s.getWaitingTime().getPercentile(99), s.getTurnaroundTime().getMean(),
+                    s.getTurnaroundTime().getPercentile(99), s.getCpuUtilisation() * 100,
+                    s.getThroughput()));
+        }
+        return out.toString();
+    }
+
+    public static final class Config {
+        public final String label;
+        public final Scheduler scheduler;
+
+        public Config(String label, Scheduler scheduler) {
+            this.label = label;
+            this.scheduler = scheduler;
+        }
+    }
+
+    public static final class Row {
+        public final String label;
+        public final ScheduleStats stats;
+        public final long wallTimeNanos;
+
+        Row(String label, ScheduleStats stats, long wallTimeNanos) {
+            this.label = label;
+            this.stats = stats;
+            this.wallTimeNanos = wallTimeNanos;
+        }
+    }
+}
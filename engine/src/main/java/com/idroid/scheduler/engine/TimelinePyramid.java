@@ -0,0 +1,129 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Arrays;
+
+/**
+ * Multi-resolution summary of a {@link ScheduleResult} timeline for drawing it at any zoom level.
+ * Level 0 splits [0, makespan) into at most {@link #MAX_BUCKETS} equal buckets, or fewer when
+ * many timelines are drawn at once, and each level above halves the bucket count. Every bucket
+ * records its busy time and the process that ran longest in it (the dominant process). Blocks
+ * visible in a time window are found with {@link ScheduleResult#firstBlockEndingAfter}.
+ *
+ * <p>The dominant process of a level-0 bucket is the one with the longest single block in it,
+ * and a parent takes the dominant process of whichever child has the longer one. That is exact
+ * whenever coalesced blocks don't interleave within a bucket, and a close approximation when
+ * they do, without a per-bucket map.
+ */
+public final class TimelinePyramid {
+    public static final int MAX_BUCKETS = 1 << 16;
+
+    private final long baseWidth;
+    private final long[][] busy;
+    private final long[][] dominantTime;
+    private final int[][] dominant;
+
+    public TimelinePyramid(ScheduleResult result) {
+        this(result, MAX_BUCKETS);
+    }
+
+    public TimelinePyramid(ScheduleResult result, int maxBuckets) {
+        if (maxBuckets <= 0) throw new IllegalArgumentException("bucket count must be positive: " + maxBuckets);
+        long makespan = Math.max(1, result.getMakespan());
+        baseWidth = Math.max(1, (makespan + maxBuckets - 1) / maxBuckets);
+        int count = (int) ((makespan + baseWidth - 1) / baseWidth);
+
+        int levels = 1;
+        for (int c = count; c > 1; c = (c + 1) >>> 1) levels++;
+        busy = new long[levels][];
+        dominantTime = new long[levels][];
+        dominant = new int[levels][];
+
+        allocate(0, count);
+        fillBaseLevel(result);
+        for (int level = 1; level < levels; level++) {
+            allocate(level, (busy[level - 1].length + 1) >>> 1);
+            mergeLevel(level);
+        }
+    }
+
+    public int levelCount() {
+        return busy.length;
+    }
+
+    public long bucketWidth(int level) {
+        return baseWidth << level;
+    }
+
+    public int bucketCount(int level) {
+        return busy[level].length;
+    }
+
+    /**
+     * Coarsest level whose buckets are no wider than timePerPixel, so every pixel column
+     * covers one or two buckets. -1 when the buckets are wider than a pixel even at level 0;
+     * draw individual blocks instead.
+     */
+    public int levelFor(double timePerPixel) {
+        if (timePerPixel < baseWidth) return -1;
+        int level = 0;
+        while (level + 1 < busy.length && (baseWidth << (level + 1)) <= timePerPixel) level++;
+        return level;
+    }
+
+    public long busyTime(int level, int bucket) {
+        return busy[level][bucket];
+    }
+
+    // Table id of the process that ran longest in the bucket, -1 if the CPU was idle throughout
+    public int dominantProcess(int level, int bucket) {
+        return dominant[level][bucket];
+    }
+
+    public long dominantTime(int level, int bucket) {
+        return dominantTime[level][bucket];
+    }
+
+    private void allocate(int level, int count) {
+        busy[level] = new long[count];
+        dominantTime[level] = new long[count];
+        dominant[level] = new int[count];
+        Arrays.fill(dominant[level], -1);
+    }
+
+    private void fillBaseLevel(ScheduleResult result) {
+        int count = busy[0].length;
+        for (int i = 0; i < result.getBlockCount(); i++) {
+            long start = result.getBlockStart(i), end = result.getBlockEnd(i);
+            int process = result.getBlockProcess(i);
+            int first = (int) Math.min(count - 1, start / baseWidth);
+            int last = (int) Math.min(count - 1, Math.max(start, end - 1) / baseWidth);
+            for (int b = first; b <= last; b++) {
+                long overlap = Math.min(end, (b + 1) * baseWidth) - Math.max(start, b * baseWidth);
+                busy[0][b] += overlap;
+                if (dominant[0][b] < 0 || overlap > dominantTime[0][b]) {
+                    dominant[0][b] = process;
+                    dominantTime[0][b] = overlap;
+                }
+            }
+        }
+    }
+
+    private void mergeLevel(int level) {
+        int below = level - 1;
+        int childCount = busy[below].length;
+        for (int b = 0; b < busy[level].length; b++) {
+            int left = 2 * b, right = left + 1;
+            busy[level][b] = busy[below][left];
+            dominant[level][b] = dominant[below][left];
+            dominantTime[level][b] = dominantTime[below][left];
+            if (right >= childCount) continue;
+
+            busy[level][b] += busy[below][right];
+            if (dominant[below][right] >= 0
+                    && (dominant[level][b] < 0 || dominantTime[below][right] > dominantTime[level][b])) {
+                dominant[level][b] = dominant[below][right];
+                dominantTime[level][b] = dominantTime[below][right];
+            }
+        }
+    }
+}
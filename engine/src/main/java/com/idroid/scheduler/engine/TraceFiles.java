@@ -0,0 +1,479 @@
+package com.idroid.scheduler.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bulk import and export of workloads and schedules, as CSV or as a compact binary trace.
+ *
+ * <p>The binary formats are little-endian and column-oriented like {@link ProcessTable}: a
+ * fixed header, then each column as one run of fixed-width values. A workload stores
+ * arrival (long), burst (long) and priority (int) columns, plus a name-length column (int,
+ * -1 for a default name) and the UTF-8 names when any row has a name. Reading maps the file
+ * and bulk-copies each column into the table arrays, so an unnamed trace costs one array copy
+ * per column and no object per row. A block stream stores the block count of every CPU lane,
+ * then start (long), end (long) and process (int) columns per lane, where process is the row
+ * of the workload the schedule was run on.
+ *
+ * <p>CSV workloads have the columns name, arrival, burst and an optional priority, with an
+ * optional header row; an empty name means the default one. Malformed input throws an
+ * IOException naming the line. In both formats a row needs an arrival of at least 0, a burst of
+ * at least 1 and a priority that is -1 or fits in an int, as for rows typed in by hand;
+ * anything else is rejected rather than let simulated time run backwards.
+ */
+public final class TraceFiles {
+    static final int WORKLOAD_MAGIC = 0x54484353; // "SCHT" read as little-endian
+    static final int BLOCKS_MAGIC = 0x42484353; // "SCHB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    private static final int FLAG_NAMES = 1;
+    private static final int MAX_WINDOW = 1 << 30; // bytes mapped at once, a multiple of 8
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private TraceFiles() {
+    }
+
+    public static ProcessTable readWorkload(FileChannel channel) throws IOException {
+        ByteBuffer header = map(channel, 0, HEADER_BYTES);
+        checkHeader(header, WORKLOAD_MAGIC);
+        int flags = header.getInt(8);
+        long count = header.getLong(16);
+        if (count < 0 || count > Integer.MAX_VALUE - 8) throw new IOException("bad process count: " + count);
+        int n = (int) count;
+        long columnsEnd = HEADER_BYTES + 20L * n + ((flags & FLAG_NAMES) != 0 ? 4L * n : 0);
+        if (channel.size() < columnsEnd) throw new IOException("truncated: " + channel.size() + " of " + columnsEnd + " bytes");
+
+        // At least one slot per column so the table can still grow
+        long[] arrival = new long[Math.max(n, 1)];
+        long[] burst = new long[arrival.length];
+        int[] priority = new int[arrival.length];
+        String[] names = new String[arrival.length];
+        long position = HEADER_BYTES;
+        position = readLongs(channel, position, arrival, n);
+        position = readLongs(channel, position, burst, n);
+        position = readInts(channel, position, priority, n);
+        if ((flags & FLAG_NAMES) != 0) {
+            int[] lengths = new int[n];
+            position = readInts(channel, position, lengths, n);
+            readNames(channel, position, lengths, names);
+        }
+        for (int id = 0; id < n; id++) {
+            String invalid = invalidRow(arrival[id], burst[id], priority[id]);
+            if (invalid != null) throw new IOException("process " + id + ": " + invalid);
+        }
+        return new ProcessTable(names, arrival, burst, priority, n);
+    }
+
+    public static void writeWorkload(ProcessTable table, FileChannel channel) throws IOException {
+        int n = table.size();
+        boolean named = false;
+        for (int id = 0; id < n && !named; id++) named = table.rawName(id) != null;
+
+        ColumnWriter out = new ColumnWriter(channel);
+        out.putInt(WORKLOAD_MAGIC).putInt(VERSION).putInt(named ? FLAG_NAMES : 0).putInt(0).putLong(n);
+        for (int id = 0; id < n; id++) out.putLong(table.arrival(id));
+        for (int id = 0; id < n; id++) out.putLong(table.burst(id));
+        for (int id = 0; id < n; id++) out.putInt(table.priority(id));
+        if (named) {
+            byte[][] encoded = new byte[n][];
+            for (int id = 0; id < n; id++) {
+                String name = table.rawName(id);
+                if (name != null) encoded[id] = name.getBytes(StandardCharsets.UTF_8);
+                out.putInt(encoded[id] == null ? -1 : encoded[id].length);
+            }
+            for (byte[] bytes : encoded) {
+                if (bytes != null) out.putBytes(bytes);
+            }
+        }
+        out.flush();
+    }
+
+    // One lane per CPU; a single-CPU schedule is one lane
+    public static void writeBlocks(ScheduleResult[] lanes, FileChannel channel) throws IOException {
+        ColumnWriter out = new ColumnWriter(channel);
+        out.putInt(BLOCKS_MAGIC).putInt(VERSION).putInt(lanes.length).putInt(0);
+        for (ScheduleResult lane : lanes) out.putLong(lane.getBlockCount());
+        for (ScheduleResult lane : lanes) {
+            int count = lane.getBlockCount();
+            for (int i = 0; i < count; i++) out.putLong(lane.getBlockStart(i));
+            for (int i = 0; i < count; i++) out.putLong(lane.getBlockEnd(i));
+            for (int i = 0; i < count; i++) out.putInt(lane.getBlockProcess(i));
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads back a block stream written by {@link #writeBlocks} for the same table. Start and
+     * finish times and statistics are rebuilt from the blocks: a process finished at the end of
+     * its last block once its blocks add up to its burst.
+     */
+    public static ScheduleResult[] readBlocks(FileChannel channel, ProcessTable table) throws IOException {
+        return readBlocks(channel, 0, table);
+    }
+
+    static ScheduleResult[] readBlocks(FileChannel channel, long position, ProcessTable table) throws IOException {
+        ByteBuffer header = map(channel, position, 16);
+        checkHeader(header, BLOCKS_MAGIC);
+        int laneCount = header.getInt(8);
+        if (laneCount <= 0) throw new IOException("bad lane count: " + laneCount);
+        position += 16;
+        if (channel.size() < position + 8L * laneCount) throw new IOException("truncated at byte " + channel.size());
+        long[] counts = new long[laneCount];
+        position = readLongs(channel, position, counts, laneCount);
+
+        int n = table.size();
+        int[][] process = new int[laneCount][];
+        long[][] start = new long[laneCount][];
+        long[][] end = new long[laneCount][];
+        long[] startTimes = ResultBuilder.newTimes(n);
+        long[] ran = new long[n];
+        long[] lastEnd = new long[n];
+        for (int lane = 0; lane < laneCount; lane++) {
+            long count = counts[lane];
+            if (count < 0 || count > Integer.MAX_VALUE - 8 || channel.size() < position + 20 * count) {
+                throw new IOException("bad block count " + count + " for lane " + lane);
+            }
+            int m = (int) count;
+            start[lane] = new long[m];
+            end[lane] = new long[m];
+            process[lane] = new int[m];
+            position = readLongs(channel, position, start[lane], m);
+            position = readLongs(channel, position, end[lane], m);
+            position = readInts(channel, position, process[lane], m);
+            // Lanes are read one after another, so earliest start and last end need a pass first
+            for (int i = 0; i < m; i++) {
+                int id = process[lane][i];
+                if (id < 0 || id >= n) throw new IOException("block of process " + id + " in a table of " + n);
+                if (startTimes[id] < 0 || start[lane][i] < startTimes[id]) startTimes[id] = start[lane][i];
+                lastEnd[id] = Math.max(lastEnd[id], end[lane][i]);
+                ran[id] += end[lane][i] - start[lane][i];
+            }
+        }
+
+        long[] finishTimes = ResultBuilder.newTimes(n);
+        ScheduleResult[] lanes = new ScheduleResult[laneCount];
+        ScheduleStats machineStats = new ScheduleStats(); // lanes build their own only when asked
+        for (int lane = 0; lane < laneCount; lane++) {
+            ResultBuilder builder = new ResultBuilder(table, startTimes, finishTimes, process[lane].length, machineStats);
+            for (int i = 0; i < process[lane].length; i++) {
+                int id = process[lane][i];
+                builder.addBlock(id, start[lane][i], end[lane][i]);
+                if (ran[id] == table.burst(id) && end[lane][i] == lastEnd[id] && finishTimes[id] < 0) {
+                    builder.complete(id, end[lane][i]);
+                }
+            }
+            lanes[lane] = builder.build();
+        }
+        return lanes;
+    }
+
+    public static ProcessTable readWorkloadCsv(Reader reader) throws IOException {
+        CsvLexer in = new CsvLexer(reader);
+        ProcessTable table = new ProcessTable();
+        boolean first = true;
+        while (in.skipBlankLines()) {
+            String name = in.readField();
+            if (first && "name".equalsIgnoreCase(name)) {
+                in.skipLine();
+                first = false;
+                continue;
+            }
+            first = false;
+            in.expectComma();
+            long arrival = in.readLong();
+            in.expectComma();
+            long burst = in.readLong();
+            long priority = -1;
+            if (in.consumeComma() && !in.atEndOfLine()) priority = in.readLong();
+            String invalid = invalidRow(arrival, burst, priority);
+            if (invalid != null) throw in.error(invalid);
+            in.endLine();
+            table.add(name, arrival, burst, (int) priority);
+        }
+        return table;
+    }
+
+    // Why a row can't be scheduled, or null if it can
+    private static String invalidRow(long arrival, long burst, long priority) {
+        if (arrival < 0) return "negative arrival " + arrival;
+        if (burst < 1) return "burst must be at least 1: " + burst;
+        if (priority < -1 || priority > Integer.MAX_VALUE) return "priority out of range: " + priority;
+        return null;
+    }
+
+    // Rows without a name are written with an empty one, so they read back the same
+    public static void writeWorkloadCsv(ProcessTable table, Writer writer) throws IOException {
+        writer.write("name,arrival,burst,priority\n");
+        StringBuilder row = new StringBuilder();
+        for (int id = 0; id < table.size(); id++) {
+            row.setLength(0);
+            String name = table.rawName(id);
+            if (name != null) appendCsvField(row, name);
+            row.append(',').append(table.arrival(id)).append(',').append(table.burst(id))
+                    .append(',').append(table.priority(id)).append('\n');
+            writer.append(row);
+        }
+        writer.flush();
+    }
+
+    public static void writeBlocksCsv(ScheduleResult[] lanes, Writer writer) throws IOException {
+        writer.write("cpu,process,name,start,end\n");
+        StringBuilder row = new StringBuilder();
+        for (int cpu = 0; cpu < lanes.length; cpu++) {
+            ScheduleResult lane = lanes[cpu];
+            for (int i = 0; i < lane.getBlockCount(); i++) {
+                row.setLength(0);
+                row.append(cpu).append(',').append(lane.getBlockProcess(i)).append(',');
+                appendCsvField(row, lane.getBlockName(i));
+                row.append(',').append(lane.getBlockStart(i)).append(',').append(lane.getBlockEnd(i)).append('\n');
+                writer.append(row);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void appendCsvField(StringBuilder out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote && !value.isEmpty() && value.trim().length() == value.length()) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void checkHeader(ByteBuffer header, int magic) throws IOException {
+        if (header.getInt(0) != magic) throw new IOException("not a scheduler trace");
+        int version = header.getInt(4);
+        if (version != VERSION) throw new IOException("unsupported trace version " + version);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (channel.size() < position + size) throw new IOException("truncated at byte " + channel.size());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    // Columns larger than MAX_WINDOW are copied one mapped window at a time
+    private static long readLongs(FileChannel channel, long position, long[] dst, int count) throws IOException {
+        for (int done = 0; done < count; ) {
+            int n = Math.min(count - done, MAX_WINDOW / 8);
+            map(channel, position, 8L * n).asLongBuffer().get(dst, done, n);
+            done += n;
+            position += 8L * n;
+        }
+        return position;
+    }
+
+    private static long readInts(FileChannel channel, long position, int[] dst, int count) throws IOException {
+        for (int done = 0; done < count; ) {
+            int n = Math.min(count - done, MAX_WINDOW / 4);
+            map(channel, position, 4L * n).asIntBuffer().get(dst, done, n);
+            done += n;
+            position += 4L * n;
+        }
+        return position;
+    }
+
+    private static void readNames(FileChannel channel, long position, int[] lengths, String[] names)
+            throws IOException {
+        long end = channel.size();
+        MappedByteBuffer window = null;
+        long windowStart = position;
+        byte[] scratch = new byte[64];
+        for (int id = 0; id < lengths.length; id++) {
+            int length = lengths[id];
+            if (length < 0) continue;
+            if (window == null || position + length > windowStart + window.capacity()) {
+                windowStart = position;
+                long size = Math.min(end - position, Math.max(MAX_WINDOW, length));
+                if (size < length) throw new IOException("truncated name of process " + id);
+                window = map(channel, position, size);
+            }
+            if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            window.position((int) (position - windowStart));
+            window.get(scratch, 0, length);
+            names[id] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+    }
+
+    // Buffers fixed-width values and writes them to the channel in large chunks
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ColumnWriter putLong(long value) throws IOException {
+            if (buffer.remaining() < 8) drain();
+            buffer.putLong(value);
+            return this;
+        }
+
+        ColumnWriter putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) drain();
+            buffer.putInt(value);
+            return this;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int done = 0; done < bytes.length; ) {
+                if (!buffer.hasRemaining()) drain();
+                int n = Math.min(bytes.length - done, buffer.remaining());
+                buffer.put(bytes, done, n);
+                done += n;
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    // Reads CSV straight from a char buffer, creating a String only for names
+    private static final class CsvLexer {
+        private final Reader reader;
+        private final char[] chars = new char[BUFFER_BYTES];
+        private int pos, limit;
+        private int line = 1;
+
+        CsvLexer(Reader reader) {
+            this.reader = reader;
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit) {
+                limit = reader.read(chars, 0, chars.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return chars[pos];
+        }
+
+        // Skips empty lines; false at the end of input
+        boolean skipBlankLines() throws IOException {
+            while (true) {
+                int c = peek();
+                if (c == -1) return false;
+                if (c != '\n' && c != '\r') return true;
+                endLine();
+            }
+        }
+
+        // A name, trimmed and unquoted; null when empty
+        String readField() throws IOException {
+            skipSpaces();
+            StringBuilder out = new StringBuilder();
+            if (peek() == '"') {
+                pos++;
+                while (true) {
+                    int c = peek();
+                    if (c == -1) throw error("unterminated quoted name");
+                    pos++;
+                    if (c == '"') {
+                        if (peek() != '"') break;
+                        pos++;
+                    }
+                    if (c == '\n') line++;
+                    out.append((char) c);
+                }
+                skipSpaces();
+            } else {
+                int c;
+                while ((c = peek()) != -1 && c != ',' && c != '\n' && c != '\r') {
+                    out.append((char) c);
+                    pos++;
+                }
+                int end = out.length();
+                while (end > 0 && out.charAt(end - 1) <= ' ') end--;
+                out.setLength(end);
+            }
+            return out.length() == 0 ? null : out.toString();
+        }
+
+        long readLong() throws IOException {
+            skipSpaces();
+            boolean negative = peek() == '-';
+            if (negative) pos++;
+            long value = 0;
+            int digits = 0;
+            int c;
+            while ((c = peek()) >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - (c - '0')) / 10) throw error("number out of range");
+                value = value * 10 + (c - '0');
+                pos++;
+                digits++;
+            }
+            if (digits == 0) throw error("expected a number");
+            skipSpaces();
+            return negative ? -value : value;
+        }
+
+        void expectComma() throws IOException {
+            if (!consumeComma()) throw error("expected ','");
+        }
+
+        boolean consumeComma() throws IOException {
+            skipSpaces();
+            if (peek() != ',') return false;
+            pos++;
+            return true;
+        }
+
+        boolean atEndOfLine() throws IOException {
+            skipSpaces();
+            int c = peek();
+            return c == -1 || c == '\n' || c == '\r';
+        }
+
+        void endLine() throws IOException {
+            if (!atEndOfLine()) throw error("unexpected '" + (char) peek() + "'");
+            if (peek() == '\r') pos++;
+            if (peek() == '\n') pos++;
+            line++;
+        }
+
+        void skipLine() throws IOException {
+            int c;
+            while ((c = peek()) != -1 && c != '\n' && c != '\r') pos++;
+            endLine();
+        }
+
+        private void skipSpaces() throws IOException {
+            int c;
+            while ((c = peek()) == ' ' || c == '\t') pos++;
+        }
+
+        private IOException error(String message) {
+            return new IOException("line " + line + ": " + message);
+        }
+    }
+}
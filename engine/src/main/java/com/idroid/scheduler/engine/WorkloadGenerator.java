@@ -0,0 +1,213 @@
+package com.idroid.scheduler.engine;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Seeded synthetic workloads for load testing. Arrivals are a Poisson process whose rate can
+ * swing up and down over a "day" to give diurnal bursts, burst sizes follow one of
+ * {@link BurstShape} around a mean, and priorities one of {@link PriorityShape}. The same
+ * settings and seed always give the same processes.
+ *
+ * <p>{@link #iterator} produces processes one at a time, in arrival order, for a
+ * {@link StreamingScheduler}, so a stream of any length never exists in memory at once.
+ * {@link #generate} writes them straight into a {@link ProcessTable} instead. Both give the same
+ * rows. Settings are read when a stream or table is started, so changing them afterwards does
+ * not affect one already running.
+ */
+public final class WorkloadGenerator implements Iterable<ProcessModel> {
+
+    public enum BurstShape {
+        // Memoryless; most processes are short
+        EXPONENTIAL,
+        // Heavy-tailed (alpha 1.5), a few processes take most of the CPU time; capped at MAX_BURST_FACTOR x mean
+        PARETO,
+        // 80% short interactive processes around a quarter of the mean, 20% long batch ones around four times it
+        BIMODAL
+    }
+
+    public enum PriorityShape {
+        // -1 everywhere; priority schedulers skip such processes
+        NONE,
+        // Equally likely 0 to levels - 1
+        UNIFORM,
+        // Halving in frequency with every level from the least urgent (levels - 1) up to 0
+        SKEWED
+    }
+
+    private static final double PARETO_ALPHA = 1.5;
+    private static final long MAX_BURST_FACTOR = 100_000;
+    private static final double SHORT_FRACTION = 0.8;
+    private static final int MONITOR_INTERVAL = 4096;
+
+    private final long count;
+    private final long seed;
+    private double meanGap = 10;
+    private BurstShape burstShape = BurstShape.EXPONENTIAL;
+    private double meanBurst = 10;
+    private PriorityShape priorityShape = PriorityShape.UNIFORM;
+    private int priorityLevels = 10;
+    private double dayLength;
+    private double dayAmplitude;
+
+    // count processes from seed, with a mean gap and a mean burst of 10 and uniform priorities 0..9
+    public WorkloadGenerator(long count, long seed) {
+        if (count < 0) throw new IllegalArgumentException("count must be >= 0");
+        this.count = count;
+        this.seed = seed;
+    }
+
+    // Mean time between arrivals, averaged over a day when diurnal bursts are on
+    public WorkloadGenerator arrivals(double meanGap) {
+        if (!(meanGap > 0)) throw new IllegalArgumentException("meanGap must be > 0");
+        this.meanGap = meanGap;
+        return this;
+    }
+
+    public WorkloadGenerator bursts(BurstShape shape, double mean) {
+        if (!(mean >= 1)) throw new IllegalArgumentException("mean burst must be >= 1");
+        burstShape = shape;
+        meanBurst = mean;
+        return this;
+    }
+
+    public WorkloadGenerator priorities(PriorityShape shape, int levels) {
+        if (levels < 1) throw new IllegalArgumentException("levels must be >= 1");
+        priorityShape = shape;
+        priorityLevels = levels;
+        return this;
+    }
+
+    /**
+     * Makes the arrival rate follow a sine over dayLength time units, peaking at 1 + amplitude
+     * times the mean rate and bottoming out at 1 - amplitude. Amplitude 0 turns it off.
+     */
+    public WorkloadGenerator diurnal(double dayLength, double amplitude) {
+        if (!(dayLength > 0) || !(amplitude >= 0 && amplitude <= 1)) {
+            throw new IllegalArgumentException("dayLength must be > 0 and amplitude in [0, 1]");
+        }
+        this.dayLength = dayLength;
+        this.dayAmplitude = amplitude;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Rows are named P1, P2, ... by position in the stream
+    @Override
+    public Iterator<ProcessModel> iterator() {
+        Cursor cursor = new Cursor();
+        return new Iterator<ProcessModel>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.index < count;
+            }
+
+            @Override
+            public ProcessModel next() {
+                if (cursor.index >= count) throw new NoSuchElementException();
+                cursor.advance();
+                return new ProcessModel("P" + cursor.index, cursor.arrival, cursor.burst, cursor.priority);
+            }
+        };
+    }
+
+    public ProcessTable generate() {
+        return generate(RunMonitor.NONE);
+    }
+
+    // Rows are left unnamed, so they show as P1, P2, ... like the streamed ones
+    public ProcessTable generate(RunMonitor monitor) {
+        if (count > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too many rows for a table: " + count);
+        int n = (int) count;
+        ProcessTable table = new ProcessTable(n);
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < n; i++) {
+            if ((i & (MONITOR_INTERVAL - 1)) == 0) {
+                if (monitor.isCancelled()) throw new CancellationException();
+                monitor.onProgress(i, n);
+            }
+            cursor.advance();
+            table.add(null, cursor.arrival, cursor.burst, cursor.priority);
+        }
+        monitor.onProgress(n, n);
+        return table;
+    }
+
+    // Draws one process at a time from a copy of the settings
+    private final class Cursor {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final double meanGap = WorkloadGenerator.this.meanGap;
+        final BurstShape burstShape = WorkloadGenerator.this.burstShape;
+        final double meanBurst = WorkloadGenerator.this.meanBurst;
+        final PriorityShape priorityShape = WorkloadGenerator.this.priorityShape;
+        final int priorityLevels = WorkloadGenerator.this.priorityLevels;
+        final double dayLength = WorkloadGenerator.this.dayLength;
+        final double dayAmplitude = WorkloadGenerator.this.dayAmplitude;
+        final long maxBurst = (long) Math.min(Long.MAX_VALUE / 2.0, meanBurst * MAX_BURST_FACTOR);
+
+        double clock;
+        long index;
+        long arrival, burst;
+        int priority;
+
+        void advance() {
+            clock = nextArrival(clock);
+            arrival = (long) clock;
+            burst = nextBurst();
+            priority = nextPriority();
+            index++;
+        }
+
+        // Thinning: candidates come at the peak rate and are kept in proportion to the rate at their time
+        private double nextArrival(double time) {
+            double peakGap = meanGap / (1 + dayAmplitude);
+            while (true) {
+                time += exponential(peakGap);
+                if (dayAmplitude == 0) return time;
+                double rate = 1 + dayAmplitude * Math.sin(2 * Math.PI * time / dayLength);
+                if (random.nextDouble() * (1 + dayAmplitude) < rate) return time;
+            }
+        }
+
+        private long nextBurst() {
+            double burst;
+            switch (burstShape) {
+                case PARETO:
+                    double scale = meanBurst * (PARETO_ALPHA - 1) / PARETO_ALPHA;
+                    burst = scale / Math.pow(1 - random.nextDouble(), 1 / PARETO_ALPHA);
+                    break;
+                case BIMODAL:
+                    // Means chosen so that the mix keeps meanBurst overall
+                    boolean isShort = random.nextDouble() < SHORT_FRACTION;
+                    burst = exponential(isShort ? meanBurst / 4 : meanBurst * 4);
+                    break;
+                default:
+                    burst = exponential(meanBurst);
+                    break;
+            }
+            return Math.max(1, Math.min(Math.round(burst), maxBurst));
+        }
+
+        private int nextPriority() {
+            switch (priorityShape) {
+                case NONE:
+                    return -1;
+                case SKEWED:
+                    int level = priorityLevels - 1;
+                    while (level > 0 && random.nextBoolean()) level--;
+                    return level;
+                default:
+                    return random.nextInt(priorityLevels);
+            }
+        }
+
+        private double exponential(double mean) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventDrivenSchedulerTest {
+
+    @Test
+    public void roundRobin_matchesLegacyImplementation() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            List<ProcessModel> processes = new ArrayList<>();
+            int n = 1 + random.nextInt(40);
+            for (int i = 0; i < n; i++) {
+                processes.add(new ProcessModel("P" + i, random.nextInt(50), 1 + random.nextInt(9), -1));
+            }
+            int quantum = 1 + random.nextInt(4);
+            LegacySchedulers.assertMatches(LegacySchedulers.roundRobin(processes, quantum),
+                    new RoundRobinScheduler(quantum).schedule(ProcessTable.of(processes)));
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void idleGap_jumpsToNextArrival() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 5, 1);
+        int late = table.add("B", 1_000_000_000_000L, 5, 1);
+        Scheduler[] schedulers = {new FcfsScheduler(), new SjfScheduler(),
+                new RoundRobinScheduler(2), new PriorityScheduler(), new SrtfScheduler(),
+                new PreemptivePriorityScheduler(3), new MlfqScheduler(3, 1), new CfsScheduler()};
+        for (Scheduler scheduler : schedulers) {
+            ScheduleResult result = scheduler.schedule(table);
+            assertEquals(1_000_000_000_005L, result.getMakespan());
+            assertEquals(0, result.getWaitingTime(late));
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void roundRobin_coalescesSlicesOfLoneProcess() {
+        ProcessTable table = new ProcessTable();
+        int a = table.add("A", 0, 3_000_000_000L, -1);
+        int b = table.add("B", 10, 4, -1);
+        ScheduleResult result = new RoundRobinScheduler(3).schedule(table);
+        // A runs alone until the quantum ending at 12 >= 10, then A and B alternate until B is done
+        assertEquals(5, result.getBlockCount());
+        assertEquals(12, result.getBlockEnd(0));
+        assertEquals(b, result.getBlockProcess(1));
+        assertEquals(15, result.getBlockEnd(1));
+        assertEquals(a, result.getBlockProcess(2));
+        assertEquals(18, result.getBlockEnd(2));
+        assertEquals(b, result.getBlockProcess(3));
+        assertEquals(19, result.getBlockEnd(3));
+        assertEquals(5, result.getWaitingTime(b));
+        assertEquals(3_000_000_004L, result.getFinishTime(a));
+    }
+
+    @Test(expected = CancellationException.class)
+    public void cancelledMonitor_stopsTheRun() {
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 100_000; i++) table.add(null, 4 * i, 3, -1);
+        long[] lastProgress = new long[1];
+        new RoundRobinScheduler(1).schedule(table, new RunMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return lastProgress[0] > 1000;
+            }
+
+            @Override
+            public void onProgress(long completed, long total) {
+                assertEquals(100_000, total);
+                lastProgress[0] = completed;
+            }
+        });
+    }
+
+    @Test
+    public void firstBlockEndingAfter_findsVisibleBlocks() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 4, -1);
+        table.add("B", 10, 6, -1);
+        table.add("C", 16, 2, -1);
+        ScheduleResult result = new FcfsScheduler().schedule(table);
+        assertEquals(0, result.firstBlockEndingAfter(-1));
+        assertEquals(0, result.firstBlockEndingAfter(3));
+        assertEquals(1, result.firstBlockEndingAfter(4));
+        assertEquals(1, result.firstBlockEndingAfter(7));
+        assertEquals(2, result.firstBlockEndingAfter(16));
+        assertEquals(3, result.firstBlockEndingAfter(18));
+    }
+
+    @Test
+    public void duplicateNames_keepSeparateStats() {
+        ProcessTable table = new ProcessTable();
+        int first = table.add("P1", 0, 4, -1);
+        int second = table.add("P1", 0, 2, -1);
+        ScheduleResult result = new FcfsScheduler().schedule(table);
+        assertEquals(2, result.getCompletedCount());
+        assertEquals(0, result.getWaitingTime(first));
+        assertEquals(4, result.getWaitingTime(second));
+    }
+
+    @Test
+    public void arrivalOrder_isStableForOutOfOrderInput() {
+        ProcessTable table = new ProcessTable(2);
+        table.add("A", 5, 1, -1);
+        table.add("B", 1, 1, -1);
+        table.add("C", 5, 1, -1);
+        table.add("D", 0, 1, -1);
+        int[] order = table.arrivalOrder();
+        assertEquals(3, order[0]);
+        assertEquals(1, order[1]);
+        assertEquals(0, order[2]);
+        assertEquals(2, order[3]);
+        assertTrue(order == table.arrivalOrder());
+    }
+}
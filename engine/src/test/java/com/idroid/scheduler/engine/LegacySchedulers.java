@@ -0,0 +1,133 @@
+package com.idroid.scheduler.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The original MainActivity algorithms (re-sort per dispatch, one-unit idle steps, name-keyed
+ * maps), kept as a reference for equivalence tests. Only valid for workloads with unique names.
+ */
+final class LegacySchedulers {
+
+    static final class Trace {
+        final ArrayList<String> blocks = new ArrayList<>();
+        final HashMap<String, Long> waiting = new HashMap<>();
+        final HashMap<String, Long> turnaround = new HashMap<>();
+        private String lastName;
+        private long lastStart, lastEnd;
+
+        // Merges back-to-back slices of one process, as the engine does
+        void addBlock(String name, long start, long end) {
+            if (name.equals(lastName) && lastEnd == start) {
+                blocks.remove(blocks.size() - 1);
+                start = lastStart;
+            }
+            blocks.add(block(name, start, end));
+            lastName = name;
+            lastStart = start;
+            lastEnd = end;
+        }
+    }
+
+    private LegacySchedulers() {
+    }
+
+    static void assertMatches(Trace expected, ScheduleResult actual) {
+        ArrayList<String> blocks = new ArrayList<>();
+        HashMap<String, Long> waiting = new HashMap<>();
+        HashMap<String, Long> turnaround = new HashMap<>();
+        for (int i = 0; i < actual.getBlockCount(); i++) {
+            blocks.add(block(actual.getBlockName(i), actual.getBlockStart(i), actual.getBlockEnd(i)));
+        }
+        ProcessTable table = actual.getTable();
+        for (int id = 0; id < table.size(); id++) {
+            if (!actual.isCompleted(id)) continue;
+            waiting.put(table.name(id), actual.getWaitingTime(id));
+            turnaround.put(table.name(id), actual.getTurnaroundTime(id));
+        }
+        assertEquals(expected.blocks, blocks);
+        assertEquals(expected.waiting, waiting);
+        assertEquals(expected.turnaround, turnaround);
+    }
+
+    static Trace nonPreemptive(List<ProcessModel> processes, boolean byPriority) {
+        ArrayList<ProcessModel> list = new ArrayList<>(processes);
+        if (byPriority) list.removeIf(p -> p.priority < 0);
+        list.sort(Comparator.comparingLong(p -> p.arrival));
+        ArrayList<ProcessModel> readyQueue = new ArrayList<>();
+        Trace trace = new Trace();
+        long time = 0;
+
+        while (!list.isEmpty() || !readyQueue.isEmpty()) {
+            for (Iterator<ProcessModel> it = list.iterator(); it.hasNext();) {
+                ProcessModel p = it.next();
+                if (p.arrival <= time) {
+                    readyQueue.add(p);
+                    it.remove();
+                }
+            }
+            if (!readyQueue.isEmpty()) {
+                readyQueue.sort(byPriority ? Comparator.comparingLong(p -> p.priority)
+                        : Comparator.comparingLong(p -> p.burst));
+                ProcessModel next = readyQueue.remove(0);
+                trace.waiting.put(next.name, time - next.arrival);
+                trace.turnaround.put(next.name, time - next.arrival + next.burst);
+                trace.addBlock(next.name, time, time + next.burst);
+                time += next.burst;
+            } else {
+                time++;
+            }
+        }
+        return trace;
+    }
+
+    static Trace roundRobin(List<ProcessModel> processes, long quantum) {
+        ArrayList<ProcessModel> list = new ArrayList<>(processes);
+        list.sort(Comparator.comparingLong(p -> p.arrival));
+        Queue<ProcessModel> queue = new LinkedList<>();
+        HashMap<String, Long> remaining = new HashMap<>();
+        Trace trace = new Trace();
+        long time = 0;
+        int index = 0;
+
+        for (ProcessModel p : list) remaining.put(p.name, p.burst);
+
+        while (!queue.isEmpty() || index < list.size()) {
+            while (index < list.size() && list.get(index).arrival <= time) {
+                queue.add(list.get(index));
+                index++;
+            }
+            if (!queue.isEmpty()) {
+                ProcessModel current = queue.poll();
+                long runTime = Math.min(quantum, remaining.get(current.name));
+                trace.addBlock(current.name, time, time + runTime);
+                time += runTime;
+                remaining.put(current.name, remaining.get(current.name) - runTime);
+                if (remaining.get(current.name) > 0) {
+                    while (index < list.size() && list.get(index).arrival <= time) {
+                        queue.add(list.get(index));
+                        index++;
+                    }
+                    queue.add(current);
+                } else {
+                    trace.waiting.put(current.name, time - current.arrival - current.burst);
+                    trace.turnaround.put(current.name, time - current.arrival);
+                }
+            } else {
+                time++;
+            }
+        }
+        return trace;
+    }
+
+    private static String block(String name, long start, long end) {
+        return name + " [" + start + "-" + end + "]";
+    }
+}
@@ -0,0 +1,68 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the heap-based SJF and Priority schedulers against the original
+ * re-sort-per-dispatch implementation that used to live in MainActivity.
+ */
+public class NonPreemptiveSchedulerTest {
+
+    @Test
+    public void sjf_matchesLegacyImplementation() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<ProcessModel> processes = randomWorkload(random, 1 + random.nextInt(60));
+            LegacySchedulers.assertMatches(LegacySchedulers.nonPreemptive(processes, false),
+                    new SjfScheduler().schedule(ProcessTable.of(processes)));
+        }
+    }
+
+    @Test
+    public void priority_matchesLegacyImplementation() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<ProcessModel> processes = randomWorkload(random, 1 + random.nextInt(60));
+            LegacySchedulers.assertMatches(LegacySchedulers.nonPreemptive(processes, true),
+                    new PriorityScheduler().schedule(ProcessTable.of(processes)));
+        }
+    }
+
+    @Test
+    public void equalKeysAndArrivals_breakTiesByName() {
+        ProcessTable table = new ProcessTable();
+        table.add("B", 0, 3, 1);
+        table.add("A", 0, 3, 1);
+        ScheduleResult result = new SjfScheduler().schedule(table);
+        assertEquals("A", result.getBlockName(0));
+        assertEquals("B", result.getBlockName(1));
+    }
+
+    @Test
+    public void unnamedRows_tieBreakLikeTheirDefaultNames() {
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 12; i++) table.add(null, 0, 3, 1);
+        ScheduleResult result = new SjfScheduler().schedule(table);
+        assertEquals("P1", result.getBlockName(0));
+        assertEquals("P10", result.getBlockName(1));
+        assertEquals("P11", result.getBlockName(2));
+        assertEquals("P12", result.getBlockName(3));
+        assertEquals("P2", result.getBlockName(4));
+    }
+
+    // Names sort in input order so the legacy input-order tie-break agrees with name order
+    private static List<ProcessModel> randomWorkload(Random random, int n) {
+        List<ProcessModel> processes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            processes.add(new ProcessModel(String.format("P%04d", i),
+                    random.nextInt(40), 1 + random.nextInt(8), random.nextInt(6) - 1));
+        }
+        return processes;
+    }
+}
@@ -0,0 +1,129 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreemptiveSchedulerTest {
+
+    @Test
+    public void srtf_preemptsForShorterArrival() {
+        ProcessTable table = new ProcessTable();
+        table.add("P1", 0, 8, -1);
+        table.add("P2", 1, 4, -1);
+        table.add("P3", 2, 9, -1);
+        table.add("P4", 3, 5, -1);
+        ScheduleResult result = new SrtfScheduler().schedule(table);
+        assertEquals("P1 0-1, P2 1-5, P4 5-10, P1 10-17, P3 17-26", blocks(result));
+        assertEquals(6.5, result.getStats().getWaitingTime().getMean(), 1e-9);
+    }
+
+    @Test
+    public void preemptivePriority_preemptsOnArrival() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 5, 2);
+        table.add("B", 1, 2, 1);
+        table.add("C", 2, 1, 3);
+        table.add("X", 0, 1, -1);
+        ScheduleResult result = new PreemptivePriorityScheduler().schedule(table);
+        assertEquals("A 0-1, B 1-3, A 3-7, C 7-8", blocks(result));
+    }
+
+    @Test
+    public void preemptivePriority_agingLetsLowPriorityRun() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 20, 0);
+        table.add("B", 0, 3, 5);
+        // B gains a level every 2 units waited and is strictly ahead of A at 11
+        ScheduleResult result = new PreemptivePriorityScheduler(2).schedule(table);
+        assertEquals("A 0-11, B 11-13, A 13-15, B 15-16, A 16-23", blocks(result));
+    }
+
+    @Test
+    public void mlfq_demotesAfterFullQuantum() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 10, -1);
+        table.add("B", 1, 1, -1);
+        assertEquals("A 0-2, B 2-3, A 3-11", blocks(new MlfqScheduler(3, 2).schedule(table)));
+    }
+
+    @Test
+    public void mlfq_arrivalPreemptsLowerLevel() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 10, -1);
+        table.add("B", 4, 1, -1);
+        // A is on level 1 with 2 of its 4 units left when B arrives
+        assertEquals("A 0-4, B 4-5, A 5-11", blocks(new MlfqScheduler(3, 2).schedule(table)));
+    }
+
+    @Test
+    public void cfs_sharesEquallyBetweenEqualWeights() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 6, -1);
+        table.add("B", 0, 6, -1);
+        assertEquals("A 0-2, B 2-4, A 4-6, B 6-8, A 8-10, B 10-12",
+                blocks(new CfsScheduler(4, 1).schedule(table)));
+    }
+
+    @Test
+    public void cfs_favoursHigherWeight() {
+        ProcessTable table = new ProcessTable();
+        int heavy = table.add("A", 0, 1000, 0);
+        int light = table.add("B", 0, 1000, 5);
+        ScheduleResult result = new CfsScheduler().schedule(table);
+        long heavyTime = 0;
+        for (int i = 0; i < result.getBlockCount() && result.getBlockEnd(i) <= 1000; i++) {
+            if (result.getBlockProcess(i) == heavy) heavyTime += result.getBlockEnd(i) - result.getBlockStart(i);
+        }
+        // 1024 : 335 weights, so roughly three quarters of the first 1000 units go to A
+        assertTrue(String.valueOf(heavyTime), heavyTime > 700 && heavyTime < 800);
+        assertTrue(result.getFinishTime(heavy) < result.getFinishTime(light));
+    }
+
+    @Test(timeout = 5000)
+    public void cfs_longBurstsDoNotOverflowVirtualRuntime() {
+        ProcessTable table = new ProcessTable();
+        int big = table.add("A", 0, 20_000_000_000_000L, -1);
+        int late = table.add("B", 10_000_000_000_000L, 5, -1);
+        ScheduleResult result = new CfsScheduler().schedule(table);
+        // A runs alone for 1e13 units first; B must still get its fair turn on arrival
+        assertTrue(String.valueOf(result.getFinishTime(late)), result.getFinishTime(late) < 10_000_000_000_100L);
+        assertEquals(20_000_000_000_005L, result.getFinishTime(big));
+        assertEquals(1024, CfsScheduler.virtualTime(1, 1024));
+        assertEquals(Long.MAX_VALUE, CfsScheduler.virtualTime(Long.MAX_VALUE, 15));
+    }
+
+    @Test(timeout = 5000)
+    public void preemptive_completesUnderHeavyLoad() {
+        Random random = new Random(5);
+        ProcessTable table = new ProcessTable();
+        // About five times more work than the CPU can do, so the ready queue holds tens of thousands
+        for (int i = 0; i < 50_000; i++) table.add(null, random.nextInt(250_000), 1 + random.nextInt(50), random.nextInt(10));
+        Scheduler[] schedulers = {new SrtfScheduler(), new PreemptivePriorityScheduler(100),
+                new MlfqScheduler(4, 2), new CfsScheduler()};
+        for (Scheduler scheduler : schedulers) {
+            ScheduleResult result = scheduler.schedule(table);
+            assertEquals(50_000, result.getCompletedCount());
+            assertEquals(result.getStats().getBusyTime(), sumOfBursts(table));
+        }
+    }
+
+    private static long sumOfBursts(ProcessTable table) {
+        long sum = 0;
+        for (int id = 0; id < table.size(); id++) sum += table.burst(id);
+        return sum;
+    }
+
+    private static String blocks(ScheduleResult result) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < result.getBlockCount(); i++) {
+            if (i > 0) out.append(", ");
+            out.append(result.getBlockName(i)).append(' ')
+                    .append(result.getBlockStart(i)).append('-').append(result.getBlockEnd(i));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProcessRowParserTest {
+
+    @Test
+    public void readsNamedRowsWithAndWithoutPriority() {
+        assertRow("P1", 0, 5, 2, ProcessRowParser.parse("P1 0 5 2"));
+        assertRow("Editor", 3, 4, -1, ProcessRowParser.parse("Editor | 3 | 4 |"));
+        assertRow("P2", 1, 6, -1, ProcessRowParser.parse("P2: 1, 6, -"));
+        assertRow(null, 7, 2, 1, ProcessRowParser.parse("7 2 1"));
+    }
+
+    @Test
+    public void fourNumbersStartWithTheProcessNumber() {
+        assertRow("P3", 4, 9, 0, ProcessRowParser.parse("3 4 9 0"));
+    }
+
+    @Test
+    public void correctsLettersMistakenForDigits() {
+        assertRow("P4", 0, 10, 11, ProcessRowParser.parse("P4 0O 1O 1l"));
+    }
+
+    @Test
+    public void singleLettersAreNamesNotDigits() {
+        assertRow("I", 0, 5, -1, ProcessRowParser.parse("I 0 5"));
+        assertRow("O", 3, 4, -1, ProcessRowParser.parse("O 3 4"));
+        assertRow("l", 2, 6, 1, ProcessRowParser.parse("l: 2 6 1"));
+        assertNull(ProcessRowParser.parse("P7 O 4"));
+    }
+
+    @Test
+    public void rejectsHeadersAndIncompleteRows() {
+        assertNull(ProcessRowParser.parse("Process Arrival Burst Priority"));
+        assertNull(ProcessRowParser.parse("Table 1"));
+        assertNull(ProcessRowParser.parse("P5 0 0"));
+        assertNull(ProcessRowParser.parse(""));
+        assertNull(ProcessRowParser.parse("P6 12345678901234567890 3"));
+    }
+
+    private static void assertRow(String name, long arrival, long burst, int priority, ProcessModel row) {
+        assertEquals(name, row.name);
+        assertEquals(arrival, row.arrival);
+        assertEquals(burst, row.burst);
+        assertEquals(priority, row.priority);
+    }
+}
@@ -0,0 +1,149 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+
+    @Test
+    public void equalTable_hitsAndIsBoundToTheCallersTable() {
+        ResultCache cache = new ResultCache(1 << 20);
+        ProcessTable first = randomTable(new Random(1), 200, 0);
+        ProcessTable second = randomTable(new Random(1), 200, 0);
+        assertEquals(first.contentHash(), second.contentHash());
+
+        ScheduleResult computed = cache.schedule(new RoundRobinScheduler(2), first, RunMonitor.NONE);
+        ScheduleResult cached = cache.schedule(new RoundRobinScheduler(2), second, RunMonitor.NONE);
+        assertSame(second, cached.getTable());
+        assertSameSchedule(computed, cached);
+        assertEquals(1, cache.getEntryCount());
+        // Every hit gets statistics of its own, so merging into one leaves the others alone
+        ScheduleResult again = cache.schedule(new RoundRobinScheduler(2), second, RunMonitor.NONE);
+        cached.getStats().merge(computed.getStats());
+        assertEquals(200, again.getStats().getCompletedCount());
+        assertEquals(200, computed.getStats().getCompletedCount());
+
+        cache.schedule(new RoundRobinScheduler(3), second, RunMonitor.NONE);
+        assertEquals(2, cache.getEntryCount());
+        ProcessTable longer = second.copy(1);
+        longer.add("late", 5000, 3, 1);
+        assertNotEquals(first.contentHash(), longer.contentHash());
+        assertEquals(first.contentHash(), longer.contentHash(200));
+        assertEquals(first.contentHash(), second.contentHash());
+    }
+
+    @Test
+    public void fcfsAppends_matchAFullRun() {
+        Random random = new Random(2);
+        ResultCache cache = new ResultCache(1 << 24);
+        ProcessTable table = randomTable(random, 5000, 0);
+        cache.schedule(new FcfsScheduler(), table, RunMonitor.NONE);
+        for (int round = 0; round < 3; round++) {
+            // Later arrivals extend the cached schedule; the last round also adds an early one
+            long last = table.arrival(table.arrivalOrder()[table.size() - 1]);
+            table = table.copy(301); // scheduled tables stay as they are
+            for (int i = 0; i < 300; i++) table.add(null, last + random.nextInt(2000), 1 + random.nextInt(9), -1);
+            if (round == 2) table.add("early", 0, 4, -1);
+            ScheduleResult result = cache.schedule(new FcfsScheduler(), table, RunMonitor.NONE);
+            assertSameSchedule(new FcfsScheduler().schedule(table), result);
+        }
+    }
+
+    @Test
+    public void namesWithEqualStringHashes_getTheirOwnSchedules() {
+        ProcessTable first = new ProcessTable();
+        first.add("Aa", 0, 5, -1);
+        first.add("B", 0, 5, -1);
+        ProcessTable second = new ProcessTable();
+        second.add("BB", 0, 5, -1);
+        second.add("B", 0, 5, -1);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(first.contentHash(), second.contentHash());
+
+        ResultCache cache = new ResultCache(1 << 20);
+        cache.schedule(new SjfScheduler(), first, RunMonitor.NONE);
+        assertSameSchedule(new SjfScheduler().schedule(second), cache.schedule(new SjfScheduler(), second, RunMonitor.NONE));
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWithinTheByteBudget() {
+        ProcessTable table = randomTable(new Random(3), 1000, 5);
+        long entryBytes = ResultCache.estimateBytes(new ScheduleResult[]{new SjfScheduler().schedule(table)});
+        ResultCache cache = new ResultCache(2 * entryBytes + entryBytes / 2);
+        cache.schedule(new SjfScheduler(), table, RunMonitor.NONE);
+        cache.schedule(new FcfsScheduler(), table, RunMonitor.NONE);
+        cache.schedule(new SjfScheduler(), table, RunMonitor.NONE); // SJF is now the most recent
+        cache.schedule(new PriorityScheduler(), table, RunMonitor.NONE);
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getBytes() <= 2 * entryBytes + entryBytes / 2);
+
+        ScheduleResult sjf = cache.schedule(new SjfScheduler(), table, RunMonitor.NONE);
+        assertEquals(2, cache.getEntryCount()); // still there, so nothing was added
+        assertSameSchedule(new SjfScheduler().schedule(table), sjf);
+    }
+
+    @Test
+    public void diskTier_restoresSchedulesInANewCache() throws IOException {
+        File directory = File.createTempFile("schedules", "");
+        assertTrue(directory.delete());
+        try {
+            ProcessTable table = randomTable(new Random(4), 2000, 0);
+            SmpScheduler smp = new SmpScheduler(4, SmpScheduler.Balancing.WORK_STEALING, new SrtfScheduler());
+            ResultCache writer = new ResultCache(1 << 24, directory, 1 << 24);
+            ScheduleResult mlfq = writer.schedule(new MlfqScheduler(3, 2), table, RunMonitor.NONE);
+            SmpScheduleResult multi = writer.schedule(smp, table, RunMonitor.NONE);
+
+            ResultCache reader = new ResultCache(1 << 24, directory, 1 << 24);
+            ProcessTable copy = randomTable(new Random(4), 2000, 0);
+            assertSameSchedule(mlfq, reader.schedule(new MlfqScheduler(3, 2), copy, RunMonitor.NONE));
+            SmpScheduleResult restored = reader.schedule(smp, copy, RunMonitor.NONE);
+            assertEquals(multi.getMigrationCount(), restored.getMigrationCount());
+            assertEquals(multi.getCpuCount(), restored.getCpuCount());
+            for (int cpu = 0; cpu < multi.getCpuCount(); cpu++) {
+                assertSameSchedule(multi.getLane(cpu), restored.getLane(cpu));
+            }
+            assertEquals(multi.getStats().getIdleTime(), restored.getStats().getIdleTime());
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) for (File file : files) assertTrue(file.delete());
+            assertTrue(directory.delete());
+        }
+    }
+
+    private static ProcessTable randomTable(Random random, int n, int priorities) {
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < n; i++) {
+            table.add(random.nextInt(3) == 0 ? "N" + i : null, random.nextInt(10 * n), 1 + random.nextInt(20),
+                    priorities > 0 ? random.nextInt(priorities) - 1 : -1);
+        }
+        return table;
+    }
+
+    private static void assertSameSchedule(ScheduleResult expected, ScheduleResult actual) {
+        assertEquals(expected.getBlockCount(), actual.getBlockCount());
+        for (int i = 0; i < expected.getBlockCount(); i++) {
+            assertEquals(expected.getBlockProcess(i), actual.getBlockProcess(i));
+            assertEquals(expected.getBlockStart(i), actual.getBlockStart(i));
+            assertEquals(expected.getBlockEnd(i), actual.getBlockEnd(i));
+        }
+        for (int id = 0; id < expected.getTable().size(); id++) {
+            assertEquals(expected.getStartTime(id), actual.getStartTime(id));
+            assertEquals(expected.getFinishTime(id), actual.getFinishTime(id));
+        }
+        ScheduleStats e = expected.getStats(), a = actual.getStats();
+        assertEquals(e.getCompletedCount(), a.getCompletedCount());
+        assertEquals(e.getBusyTime(), a.getBusyTime());
+        assertEquals(e.getMakespan(), a.getMakespan());
+        assertEquals(e.getWaitingTime().getMean(), a.getWaitingTime().getMean(), 1e-9);
+        assertEquals(e.getTurnaroundTime().getPercentile(95), a.getTurnaroundTime().getPercentile(95));
+    }
+}
@@ -0,0 +1,61 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunMetricsTest {
+
+    private static ProcessTable table() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 4, -1);
+        table.add("B", 0, 2, -1);
+        table.add("C", 1, 3, -1);
+        table.add("D", 2, 1, -1);
+        return table;
+    }
+
+    @Test
+    public void fcfs_countsSwitchesAndQueueDepth() {
+        RunMetrics metrics = new RunMetrics();
+        new FcfsScheduler().schedule(table(), metrics.wrap(RunMonitor.NONE));
+        assertEquals(1, metrics.getRunCount());
+        assertEquals(3, metrics.getContextSwitches());
+        // B, C and D all wait while A runs
+        assertEquals(3, metrics.getMaxQueueDepth());
+        assertEquals(0, metrics.getHeapOperations());
+        assertTrue(metrics.getEvents() >= 4);
+    }
+
+    @Test
+    public void heapQueues_countOperations() {
+        RunMetrics metrics = new RunMetrics();
+        new SrtfScheduler().schedule(table(), metrics.wrap(RunMonitor.NONE));
+        assertTrue(metrics.getHeapOperations() >= 8);
+        new SmpScheduler(2, SmpScheduler.Balancing.WORK_STEALING, new SjfScheduler()).schedule(table(), metrics.wrap(RunMonitor.NONE));
+        assertEquals(2, metrics.getRunCount());
+    }
+
+    @Test
+    public void cacheHits_areCountedInsteadOfRuns() {
+        RunMetrics metrics = new RunMetrics();
+        ResultCache cache = new ResultCache(1 << 20);
+        cache.schedule(new SjfScheduler(), table(), metrics.wrap(RunMonitor.NONE));
+        cache.schedule(new SjfScheduler(), table(), metrics.wrap(RunMonitor.NONE));
+        assertEquals(1, metrics.getRunCount());
+        assertEquals(1, metrics.getCacheHits());
+
+        // Extending the cached FCFS schedule by later rows is a run of its own
+        ProcessTable longer = table().copy(2);
+        longer.add("late", 1000, 3, -1);
+        longer.add("later", 1000, 3, -1);
+        cache.schedule(new FcfsScheduler(), table(), RunMonitor.NONE);
+        RunMetrics extended = new RunMetrics();
+        cache.schedule(new FcfsScheduler(), longer, extended.wrap(RunMonitor.NONE));
+        assertEquals(1, extended.getRunCount());
+        assertEquals(0, extended.getCacheHits());
+        assertEquals(2, extended.getEvents());
+        assertEquals(2, extended.getMaxQueueDepth());
+    }
+}
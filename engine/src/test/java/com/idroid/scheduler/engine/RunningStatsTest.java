@@ -0,0 +1,70 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunningStatsTest {
+
+    @Test
+    public void momentsAndPercentiles_matchExactValues() {
+        Random random = new Random(5);
+        long[] values = new long[100_000];
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < values.length; i++) {
+            // heavy tail so the log buckets are exercised across many magnitudes
+            values[i] = (long) (10 / Math.pow(1 - random.nextDouble(), 1.2));
+            stats.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        double mean = Arrays.stream(values).average().orElse(0);
+        double variance = Arrays.stream(values).mapToDouble(v -> (v - mean) * (v - mean)).sum() / values.length;
+        assertEquals(mean, stats.getMean(), 1e-9 * mean);
+        assertEquals(variance, stats.getVariance(), 1e-6 * variance);
+        assertEquals(values[0], stats.getMin());
+        assertEquals(values[values.length - 1], stats.getMax());
+
+        for (double p : new double[]{50, 95, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long approx = stats.getPercentile(p);
+            assertTrue("p" + p + ": " + approx + " vs " + exact, Math.abs(approx - exact) <= exact / 60 + 1);
+        }
+    }
+
+    @Test
+    public void merge_equalsAddingEverythingToOne() {
+        RunningStats all = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        for (long v = 0; v < 1000; v++) {
+            all.add(v * v);
+            (v % 3 == 0 ? left : right).add(v * v);
+        }
+        left.merge(right);
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getSum(), left.getSum());
+        assertEquals(all.getVariance(), left.getVariance(), 1e-6 * all.getVariance());
+        assertEquals(all.getPercentile(99), left.getPercentile(99));
+        assertEquals(all.getMin(), left.getMin());
+        assertEquals(all.getMax(), left.getMax());
+    }
+
+    @Test
+    public void scheduleStats_trackUtilisationAndIdleTime() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 4, -1);
+        table.add("B", 10, 6, -1);
+        ScheduleStats stats = new FcfsScheduler().schedule(table).getStats();
+        assertEquals(2, stats.getCompletedCount());
+        assertEquals(16, stats.getMakespan());
+        assertEquals(10, stats.getBusyTime());
+        assertEquals(6, stats.getIdleTime());
+        assertEquals(10 / 16.0, stats.getCpuUtilisation(), 1e-12);
+        assertEquals(0, stats.getWaitingTime().getMax());
+    }
+}
@@ -0,0 +1,142 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SmpSchedulerTest {
+
+    @Test
+    public void oneCpuWithGlobalQueue_matchesSingleCpuRun() {
+        Random random = new Random(17);
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 3000; i++) {
+            String name = random.nextInt(4) == 0 ? "N" + random.nextInt(100) : null;
+            table.add(name, random.nextInt(20_000), 1 + random.nextInt(12), random.nextInt(6) - 1);
+        }
+        for (SweepRunner.Config config : SweepRunner.standardConfigs(3)) {
+            // CFS places an arrival at the queue minimum as of the arrival, not as of the slice end
+            if (config.scheduler instanceof CfsScheduler) continue;
+            ScheduleResult expected = config.scheduler.schedule(table);
+            ScheduleResult actual = new SmpScheduler(1, SmpScheduler.Balancing.GLOBAL_QUEUE, config.scheduler)
+                    .schedule(table).getLane(0);
+            assertEquals(config.label, expected.getBlockCount(), actual.getBlockCount());
+            for (int i = 0; i < expected.getBlockCount(); i++) {
+                assertEquals(config.label, expected.getBlockProcess(i), actual.getBlockProcess(i));
+                assertEquals(config.label, expected.getBlockStart(i), actual.getBlockStart(i));
+                assertEquals(config.label, expected.getBlockEnd(i), actual.getBlockEnd(i));
+            }
+            for (int id = 0; id < table.size(); id++) {
+                assertEquals(config.label, expected.getFinishTime(id), actual.getFinishTime(id));
+            }
+        }
+    }
+
+    @Test
+    public void globalQueue_fcfsOnTwoCpus() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 4, -1);
+        table.add("B", 0, 2, -1);
+        table.add("C", 1, 3, -1);
+        table.add("D", 2, 1, -1);
+        SmpScheduleResult result = new SmpScheduler(2, SmpScheduler.Balancing.GLOBAL_QUEUE, new FcfsScheduler())
+                .schedule(table);
+        assertEquals("A 0-4, D 4-5", blocks(result.getLane(0)));
+        assertEquals("B 0-2, C 2-5", blocks(result.getLane(1)));
+        assertEquals(5, result.getMakespan());
+        assertEquals(1.0, result.getStats().getCpuUtilisation(), 1e-9);
+    }
+
+    @Test
+    public void workStealing_balancesWhatRoundRobinPlacementLeavesUneven() {
+        ProcessTable table = new ProcessTable();
+        long[] bursts = {10, 1, 1, 1, 10, 1, 1, 1};
+        for (int i = 0; i < bursts.length; i++) table.add(null, 0, bursts[i], -1);
+
+        SmpScheduleResult perCpu = new SmpScheduler(4, SmpScheduler.Balancing.PER_CPU, new FcfsScheduler())
+                .schedule(table);
+        assertEquals(20, perCpu.getMakespan());
+        assertEquals(1.0, perCpu.getCpuUtilisation(0), 1e-9);
+        assertEquals(0.1, perCpu.getCpuUtilisation(1), 1e-9);
+
+        SmpScheduleResult stealing = new SmpScheduler(4, SmpScheduler.Balancing.WORK_STEALING, new FcfsScheduler())
+                .schedule(table);
+        // CPUs 1-3 finish their two short jobs at 2 and one of them takes the second long job
+        assertEquals(12, stealing.getMakespan());
+        assertEquals(8, stealing.getCompletedCount());
+    }
+
+    @Test
+    public void migratedProcessesAreCounted() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 6, -1);
+        table.add("B", 0, 6, -1);
+        table.add("C", 0, 6, -1);
+        // Three processes round-robin over two CPUs from one queue keep changing CPU; nine
+        // quanta on two CPUs take five rounds
+        SmpScheduleResult result = new SmpScheduler(2, SmpScheduler.Balancing.GLOBAL_QUEUE, new RoundRobinScheduler(2))
+                .schedule(table);
+        assertEquals(10, result.getMakespan());
+        assertTrue(result.getMigrationCount() > 0);
+    }
+
+    @Test(timeout = 10000)
+    public void manyCpus_completeEveryProcess() {
+        Random random = new Random(9);
+        ProcessTable table = new ProcessTable();
+        // Slightly more work than 512 CPUs can do, so every queue holds a few processes
+        for (int i = 0; i < 20_000; i++) table.add(null, random.nextInt(4_000), 1 + random.nextInt(200), random.nextInt(10));
+        Scheduler[] policies = {new RoundRobinScheduler(10), new SrtfScheduler(), new CfsScheduler()};
+        for (Scheduler policy : policies) {
+            for (SmpScheduler.Balancing balancing : SmpScheduler.Balancing.values()) {
+                SmpScheduleResult result = new SmpScheduler(512, balancing, policy).schedule(table);
+                String label = policy.getClass().getSimpleName() + " " + balancing;
+                assertEquals(label, 20_000, result.getCompletedCount());
+                assertEquals(label, sumOfBursts(table), result.getStats().getBusyTime());
+                for (int cpu = 0; cpu < result.getCpuCount(); cpu++) {
+                    ScheduleResult lane = result.getLane(cpu);
+                    for (int i = 1; i < lane.getBlockCount(); i++) {
+                        assertTrue(label, lane.getBlockStart(i) >= lane.getBlockEnd(i - 1));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void lanes_buildTheirStatisticsOnlyWhenAsked() {
+        Random random = new Random(5);
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 1000; i++) table.add(null, random.nextInt(500), 1 + random.nextInt(50), -1);
+        SmpScheduleResult result = new SmpScheduler(4096, SmpScheduler.Balancing.PER_CPU, new SjfScheduler()).schedule(table);
+        assertEquals(1000, result.getCompletedCount());
+        ScheduleStats merged = new ScheduleStats();
+        for (int cpu = 0; cpu < result.getCpuCount(); cpu++) {
+            ScheduleStats lane = result.getLane(cpu).getStats();
+            assertEquals(lane.getBusyTime(), Math.round(result.getCpuUtilisation(cpu) * result.getMakespan()));
+            merged.merge(lane);
+        }
+        assertEquals(result.getStats().getCompletedCount(), merged.getCompletedCount());
+        assertEquals(result.getStats().getBusyTime(), merged.getBusyTime());
+        assertEquals(result.getStats().getWaitingTime().getMean(), merged.getWaitingTime().getMean(), 1e-9);
+    }
+
+    private static long sumOfBursts(ProcessTable table) {
+        long sum = 0;
+        for (int id = 0; id < table.size(); id++) sum += table.burst(id);
+        return sum;
+    }
+
+    private static String blocks(ScheduleResult result) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < result.getBlockCount(); i++) {
+            if (i > 0) out.append(", ");
+            out.append(result.getBlockName(i)).append(' ')
+                    .append(result.getBlockStart(i)).append('-').append(result.getBlockEnd(i));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingSchedulerTest {
+
+    private static final class RecordingSink implements ScheduleSink {
+        final List<String> blocks = new ArrayList<>();
+        final List<String> completions = new ArrayList<>();
+
+        @Override
+        public void onBlock(long process, String name, long start, long end) {
+            blocks.add(process + " " + name + " [" + start + "-" + end + "]");
+        }
+
+        @Override
+        public void onCompletion(long process, String name, long arrival, long burst,
+                                 long start, long finish) {
+            completions.add(process + " " + name + " " + start + " " + finish);
+        }
+    }
+
+    @Test
+    public void stream_matchesBatchSchedule() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            List<ProcessModel> processes = new ArrayList<>();
+            long arrival = 0;
+            int n = 1 + random.nextInt(80);
+            for (int i = 0; i < n; i++) {
+                arrival += random.nextInt(4);
+                String name = random.nextBoolean() ? null : "J" + random.nextInt(10);
+                processes.add(new ProcessModel(name, arrival, random.nextInt(9), random.nextInt(5) - 1));
+            }
+            StreamingScheduler[] schedulers = {new FcfsScheduler(), new SjfScheduler(),
+                    new RoundRobinScheduler(1 + random.nextInt(3)), new PriorityScheduler(),
+                    new SrtfScheduler(), new PreemptivePriorityScheduler(random.nextInt(3)),
+                    new MlfqScheduler(3, 1 + random.nextInt(2)), new CfsScheduler(6, 1 + random.nextInt(2))};
+            for (StreamingScheduler scheduler : schedulers) {
+                RecordingSink expected = replay(scheduler.schedule(ProcessTable.of(processes)));
+                RecordingSink actual = new RecordingSink();
+                scheduler.schedule(processes.iterator(), actual);
+                assertEquals(expected.blocks, actual.blocks);
+                assertEquals(expected.completions, actual.completions);
+            }
+        }
+    }
+
+    @Test
+    public void stream_pullsInputLazily() {
+        final long total = 5_000_000;
+        Iterator<ProcessModel> endless = new Iterator<ProcessModel>() {
+            long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < total;
+            }
+
+            @Override
+            public ProcessModel next() {
+                return new ProcessModel(null, 10 * next++, 5, -1);
+            }
+        };
+        long[] completed = new long[1];
+        new FcfsScheduler().schedule(endless, new ScheduleSink() {
+            @Override
+            public void onBlock(long process, String name, long start, long end) {
+            }
+
+            @Override
+            public void onCompletion(long process, String name, long arrival, long burst,
+                                     long start, long finish) {
+                completed[0]++;
+            }
+        });
+        assertEquals(total, completed[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stream_rejectsOutOfOrderArrivals() {
+        List<ProcessModel> processes = Arrays.asList(
+                new ProcessModel("A", 5, 1, -1), new ProcessModel("B", 2, 1, -1));
+        new FcfsScheduler().schedule(processes.iterator(), new RecordingSink());
+    }
+
+    // Completions in the order the streaming run reports them: by finish time
+    private static RecordingSink replay(ScheduleResult result) {
+        RecordingSink sink = new RecordingSink();
+        for (int i = 0; i < result.getBlockCount(); i++) {
+            int id = result.getBlockProcess(i);
+            sink.onBlock(id, result.getBlockName(i), result.getBlockStart(i), result.getBlockEnd(i));
+            if (result.isCompleted(id) && result.getFinishTime(id) == result.getBlockEnd(i)) {
+                sink.onCompletion(id, result.getTable().name(id), 0, 0,
+                        result.getStartTime(id), result.getFinishTime(id));
+            }
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,38 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class SweepRunnerTest {
+
+    @Test
+    public void parallelSweep_matchesSequentialRuns() {
+        Random random = new Random(1);
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 2000; i++) {
+            table.add(null, random.nextInt(20_000), 1 + random.nextInt(30), random.nextInt(8));
+        }
+        List<SweepRunner.Config> configs = SweepRunner.standardConfigs(16);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<SweepRunner.Row> rows = new SweepRunner(pool).run(table, configs);
+            assertEquals(configs.size(), rows.size());
+            for (int i = 0; i < configs.size(); i++) {
+                ScheduleStats expected = configs.get(i).scheduler.schedule(table).getStats();
+                ScheduleStats actual = rows.get(i).stats;
+                assertEquals(configs.get(i).label, rows.get(i).label);
+                assertEquals(expected.getWaitingTime().getSum(), actual.getWaitingTime().getSum());
+                assertEquals(expected.getTurnaroundTime().getPercentile(99),
+                        actual.getTurnaroundTime().getPercentile(99));
+                assertEquals(expected.getMakespan(), actual.getMakespan());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimelinePyramidTest {
+
+    @Test
+    public void everyLevel_accountsForAllBusyTime() {
+        Random random = new Random(9);
+        ProcessTable table = new ProcessTable();
+        for (int i = 0; i < 50_000; i++) table.add(null, random.nextInt(2_000_000), 1 + random.nextInt(40), -1);
+        ScheduleResult result = new RoundRobinScheduler(4).schedule(table);
+        TimelinePyramid pyramid = new TimelinePyramid(result);
+
+        long busy = result.getStats().getBusyTime();
+        for (int level = 0; level < pyramid.levelCount(); level++) {
+            long sum = 0;
+            for (int b = 0; b < pyramid.bucketCount(level); b++) sum += pyramid.busyTime(level, b);
+            assertEquals("level " + level, busy, sum);
+        }
+        assertEquals(1, pyramid.bucketCount(pyramid.levelCount() - 1));
+        assertTrue(pyramid.bucketCount(0) <= TimelinePyramid.MAX_BUCKETS);
+    }
+
+    @Test
+    public void dominantProcess_isTheLongestRunner() {
+        ProcessTable table = new ProcessTable();
+        table.add("short", 0, 1, -1);
+        int longJob = table.add("long", 0, 1_000_000, -1);
+        ScheduleResult result = new FcfsScheduler().schedule(table);
+        TimelinePyramid pyramid = new TimelinePyramid(result);
+
+        int top = pyramid.levelCount() - 1;
+        assertEquals(longJob, pyramid.dominantProcess(top, 0));
+        assertEquals(longJob, pyramid.dominantProcess(0, 0));
+    }
+
+    @Test
+    public void levelFor_picksBucketsNoWiderThanAPixel() {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 1 << 20, -1);
+        TimelinePyramid pyramid = new TimelinePyramid(new FcfsScheduler().schedule(table));
+        assertEquals(16, pyramid.bucketWidth(0));
+        assertEquals(-1, pyramid.levelFor(8));
+        assertEquals(0, pyramid.levelFor(16));
+        assertEquals(0, pyramid.levelFor(31));
+        assertEquals(1, pyramid.levelFor(32));
+        assertEquals(pyramid.levelCount() - 1, pyramid.levelFor(1e18));
+    }
+}
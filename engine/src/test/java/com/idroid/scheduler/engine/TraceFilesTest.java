@@ -0,0 +1,191 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraceFilesTest {
+
+    @Test
+    public void binaryWorkload_roundTripsNamesAndDefaults() throws IOException {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 5, 2);
+        table.add(null, 3, 7, -1);
+        table.add("\u00dcn\u00efcode, \"quoted\"", Long.MAX_VALUE, 1, 9);
+        ProcessTable copy = roundTrip(table);
+        assertSameRows(table, copy);
+        assertNull(copy.rawName(1));
+    }
+
+    @Test(timeout = 10000)
+    public void binaryWorkload_loadsAMillionUnnamedRows() throws IOException {
+        Random random = new Random(3);
+        ProcessTable table = new ProcessTable(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) table.add(null, i, 1 + random.nextInt(100), random.nextInt(10));
+        File file = File.createTempFile("workload", ".trace");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                TraceFiles.writeWorkload(table, out.getChannel());
+            }
+            // No name section: header plus 20 bytes per row
+            assertEquals(TraceFiles.HEADER_BYTES + 20L * 1_000_000, file.length());
+            try (FileInputStream in = new FileInputStream(file)) {
+                assertSameRows(table, TraceFiles.readWorkload(in.getChannel()));
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void binaryWorkload_rejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("workload", ".trace");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write("name,arrival,burst\nA,0,1\n".getBytes("UTF-8"));
+            }
+            try (FileInputStream in = new FileInputStream(file)) {
+                TraceFiles.readWorkload(in.getChannel());
+                fail();
+            } catch (IOException expected) {
+                assertEquals("not a scheduler trace", expected.getMessage());
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void csvWorkload_parsesHeaderQuotesAndOptionalPriority() throws IOException {
+        String csv = "Name, Arrival, Burst, Priority\r\n"
+                + "A, 0, 5, 2\r\n"
+                + "\n"
+                + ",3,7\n"
+                + "\"B, the second\",4,1,\n"
+                + "C,5,2,-1";
+        ProcessTable table = TraceFiles.readWorkloadCsv(new StringReader(csv));
+        assertEquals(4, table.size());
+        assertEquals("A", table.name(0));
+        assertEquals(2, table.priority(0));
+        assertNull(table.rawName(1));
+        assertEquals(-1, table.priority(1));
+        assertEquals("B, the second", table.name(2));
+        assertEquals(-1, table.priority(2));
+        assertEquals(5, table.arrival(3));
+
+        StringWriter out = new StringWriter();
+        TraceFiles.writeWorkloadCsv(table, out);
+        assertSameRows(table, TraceFiles.readWorkloadCsv(new StringReader(out.toString())));
+    }
+
+    @Test
+    public void csvWorkload_reportsTheBadLine() {
+        try {
+            TraceFiles.readWorkloadCsv(new StringReader("A,0,5\nB,x,5\n"));
+            fail();
+        } catch (IOException expected) {
+            assertEquals("line 2: expected a number", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void bothFormats_rejectRowsThatCannotBeScheduled() throws IOException {
+        String[] rows = {"A,0,-3", "A,-1,5", "A,0,0", "A,0,5,3000000000", "A,0,5,-2"};
+        String[] messages = {"burst must be at least 1: -3", "negative arrival -1", "burst must be at least 1: 0",
+                "priority out of range: 3000000000", "priority out of range: -2"};
+        for (int i = 0; i < rows.length; i++) {
+            try {
+                TraceFiles.readWorkloadCsv(new StringReader("B,0,1\n" + rows[i] + "\n"));
+                fail(rows[i]);
+            } catch (IOException expected) {
+                assertEquals("line 2: " + messages[i], expected.getMessage());
+            }
+        }
+
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 5, -1);
+        table.add("B", -4, 5, -1);
+        try {
+            roundTrip(table);
+            fail();
+        } catch (IOException expected) {
+            assertEquals("process 1: negative arrival -4", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void blocks_writtenPerLaneAsColumns() throws IOException {
+        ProcessTable table = new ProcessTable();
+        table.add("A", 0, 4, -1);
+        table.add("B", 0, 2, -1);
+        SmpScheduleResult result = new SmpScheduler(2, SmpScheduler.Balancing.GLOBAL_QUEUE, new FcfsScheduler())
+                .schedule(table);
+        File file = File.createTempFile("blocks", ".trace");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                TraceFiles.writeBlocks(result.getLanes(), out.getChannel());
+            }
+            ByteBuffer bytes;
+            try (FileInputStream in = new FileInputStream(file)) {
+                FileChannel channel = in.getChannel();
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            assertEquals(TraceFiles.BLOCKS_MAGIC, bytes.getInt(0));
+            assertEquals(2, bytes.getInt(8));
+            assertEquals(1, bytes.getLong(16));
+            assertEquals(1, bytes.getLong(24));
+            // Lane 0: start, end, process
+            assertEquals(0, bytes.getLong(32));
+            assertEquals(4, bytes.getLong(40));
+            assertEquals(0, bytes.getInt(48));
+            // Lane 1
+            assertEquals(2, bytes.getLong(60));
+            assertEquals(1, bytes.getInt(68));
+            assertEquals(72, bytes.capacity());
+        } finally {
+            assertTrue(file.delete());
+        }
+
+        StringWriter csv = new StringWriter();
+        TraceFiles.writeBlocksCsv(result.getLanes(), csv);
+        assertEquals("cpu,process,name,start,end\n0,0,A,0,4\n1,1,B,0,2\n", csv.toString());
+    }
+
+    private static ProcessTable roundTrip(ProcessTable table) throws IOException {
+        File file = File.createTempFile("workload", ".trace");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                TraceFiles.writeWorkload(table, out.getChannel());
+            }
+            try (FileInputStream in = new FileInputStream(file)) {
+                return TraceFiles.readWorkload(in.getChannel());
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private static void assertSameRows(ProcessTable expected, ProcessTable actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.name(id), actual.name(id));
+            assertEquals(expected.arrival(id), actual.arrival(id));
+            assertEquals(expected.burst(id), actual.burst(id));
+            assertEquals(expected.priority(id), actual.priority(id));
+        }
+    }
+}
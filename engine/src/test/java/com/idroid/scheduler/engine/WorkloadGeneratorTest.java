@@ -0,0 +1,73 @@
+package com.idroid.scheduler.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkloadGeneratorTest {
+
+    @Test
+    public void sameSeed_givesTheSameRowsStreamedOrAsATable() {
+        WorkloadGenerator generator = new WorkloadGenerator(5000, 7)
+                .bursts(WorkloadGenerator.BurstShape.BIMODAL, 20)
+                .priorities(WorkloadGenerator.PriorityShape.SKEWED, 5)
+                .diurnal(10_000, 0.8);
+        ProcessTable table = generator.generate();
+        assertEquals(table.contentHash(), generator.generate().contentHash());
+
+        Iterator<ProcessModel> stream = generator.iterator();
+        long last = 0;
+        for (int id = 0; id < table.size(); id++) {
+            ProcessModel p = stream.next();
+            assertEquals(table.name(id), p.name);
+            assertEquals(table.arrival(id), p.arrival);
+            assertEquals(table.burst(id), p.burst);
+            assertEquals(table.priority(id), p.priority);
+            assertTrue(p.arrival >= last && p.burst >= 1 && p.priority >= 0 && p.priority < 5);
+            last = p.arrival;
+        }
+        assertFalse(stream.hasNext());
+    }
+
+    @Test
+    public void meansFollowTheSettings() {
+        for (WorkloadGenerator.BurstShape shape : WorkloadGenerator.BurstShape.values()) {
+            ProcessTable table = new WorkloadGenerator(200_000, 1).arrivals(5).bursts(shape, 50).generate();
+            double bursts = 0;
+            for (int id = 0; id < table.size(); id++) bursts += table.burst(id);
+            assertEquals(shape.name(), 50, bursts / table.size(), 5);
+            assertEquals(shape.name(), 5, table.arrival(table.size() - 1) / (double) table.size(), 0.1);
+        }
+    }
+
+    @Test
+    public void diurnalRate_peaksInTheFirstHalfOfTheDay() {
+        ProcessTable table = new WorkloadGenerator(100_000, 3).arrivals(1).diurnal(1000, 1).generate();
+        int firstHalf = 0;
+        for (int id = 0; id < table.size(); id++) if (table.arrival(id) % 1000 < 500) firstHalf++;
+        // With amplitude 1 the first half gets (1 + 2 / pi) / 2 of all arrivals
+        assertEquals(0.818, firstHalf / (double) table.size(), 0.02);
+    }
+
+    @Test
+    public void streamsIntoAStreamingScheduler() {
+        List<Long> finished = new ArrayList<>();
+        new RoundRobinScheduler(4).schedule(new WorkloadGenerator(20_000, 11).iterator(), new ScheduleSink() {
+            @Override
+            public void onBlock(long process, String name, long start, long end) {
+            }
+
+            @Override
+            public void onCompletion(long process, String name, long arrival, long burst, long start, long finish) {
+                finished.add(process);
+            }
+        });
+        assertEquals(20_000, finished.size());
+    }
+}
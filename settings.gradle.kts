@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "Scheduler"
 include(":app")
+include(":engine")
+include(":engine-benchmark")
+include(":baselineprofile")
  
\ No newline at end of file